@@ -1,12 +1,18 @@
 package io.doist.recyclerviewext.animations;
 
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 /**
  * Wrapper around {@link DataSetDiffer}, which adds functionality to animate between data sets.
  *
  * To seamlessly animate between data sets, call {@link #animateDataSetChanged()} in place of
- * {@link #notifyDataSetChanged()}.
+ * {@link #notifyDataSetChanged()}, or apply changes through {@link #animateDataSetChanged(Runnable)}.
  */
 public abstract class AnimatedAdapter<VH extends RecyclerView.ViewHolder>
         extends RecyclerView.Adapter<VH>
@@ -14,6 +20,19 @@ public abstract class AnimatedAdapter<VH extends RecyclerView.ViewHolder>
 
     private DataSetDiffer dataSetDiffer;
 
+    private boolean coalescingEnabled;
+    private boolean diffScheduled;
+    // Data set updates kept aside until the scheduled diff, so that the adapter only changes when it's notified.
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+    private final Choreographer.FrameCallback diffFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            diffScheduled = false;
+            applyPendingUpdates();
+            animateDataSetChangedNow();
+        }
+    };
+
     protected AnimatedAdapter() {
         setAnimationsEnabled(true);
     }
@@ -41,20 +60,105 @@ public abstract class AnimatedAdapter<VH extends RecyclerView.ViewHolder>
         } else if (!enabled && dataSetDiffer != null) {
             dataSetDiffer.stopObservingItems();
             dataSetDiffer = null;
+            if (diffScheduled) {
+                cancelScheduledDiff();
+                applyPendingUpdates();
+                notifyDataSetChanged();
+            }
         }
     }
 
+    /**
+     * Returns whether calls to {@link #animateDataSetChanged(Runnable)} are coalesced until the next frame.
+     */
+    public final boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    /**
+     * Sets whether calls to {@link #animateDataSetChanged(Runnable)} are coalesced until the next frame (disabled by
+     * default).
+     *
+     * If set to {@code true}, data set updates are kept aside until the next {@link Choreographer} frame, where they're
+     * all applied right before a single diff. While a diff is scheduled (see {@link #isDiffScheduled()}), the data set
+     * must only be changed through {@link #animateDataSetChanged(Runnable)}.
+     */
+    public final void setCoalescingEnabled(boolean enabled) {
+        coalescingEnabled = enabled;
+        if (!enabled && diffScheduled) {
+            runScheduledDiffNow();
+        }
+    }
+
+    /**
+     * Returns whether a coalesced diff is scheduled for the next frame.
+     */
+    public final boolean isDiffScheduled() {
+        return diffScheduled;
+    }
+
     /**
      * Analyzes the data set using {@link #getItemId(int)} and {@link #getItemContentHash(int)} and calls the
      * necessary {@code notify*} methods to go from the previous data set to the new one.
      *
-     * This method should be called right after the data set is updated.
+     * This method should be called right after the data set is updated. It's never coalesced, as the adapter already
+     * exposes the new data set. Any scheduled diff runs now, along with its pending updates.
      */
     public void animateDataSetChanged() {
+        if (diffScheduled) {
+            runScheduledDiffNow();
+        } else {
+            animateDataSetChangedNow();
+        }
+    }
+
+    /**
+     * Runs {@code update}, which changes the data set, and animates to the new data set like
+     * {@link #animateDataSetChanged()}.
+     *
+     * When coalescing is enabled, {@code update} is deferred to the next frame along with the diff, so that the data
+     * set never changes without RecyclerView being notified.
+     *
+     * @see #setCoalescingEnabled(boolean)
+     */
+    public void animateDataSetChanged(@NonNull Runnable update) {
+        if (areAnimationsEnabled() && coalescingEnabled) {
+            pendingUpdates.add(update);
+            if (!diffScheduled) {
+                diffScheduled = true;
+                Choreographer.getInstance().postFrameCallback(diffFrameCallback);
+            }
+        } else {
+            update.run();
+            animateDataSetChanged();
+        }
+    }
+
+    private void animateDataSetChangedNow() {
         if (areAnimationsEnabled()) {
             dataSetDiffer.diffDataSet();
         } else {
             notifyDataSetChanged();
         }
     }
+
+    private void runScheduledDiffNow() {
+        cancelScheduledDiff();
+        applyPendingUpdates();
+        animateDataSetChangedNow();
+    }
+
+    private void cancelScheduledDiff() {
+        diffScheduled = false;
+        Choreographer.getInstance().removeFrameCallback(diffFrameCallback);
+    }
+
+    private void applyPendingUpdates() {
+        // Updates may schedule others, which are then applied on their own frame.
+        Runnable[] updates = pendingUpdates.toArray(new Runnable[0]);
+        pendingUpdates.clear();
+        for (Runnable update : updates) {
+            update.run();
+        }
+    }
 }
@@ -5,6 +5,7 @@ import android.os.Looper;
 
 import java.util.concurrent.Executor;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -23,7 +24,10 @@ public class AsyncDataSetDiffer {
 
     private final RecyclerView.Adapter adapter;
     private final DataSetDiffer dataSetDiffer;
-    private int runningDiffCount = 0;
+    // Id of the latest call to diffDataSet() and whether it's still pending.
+    // Older pending diffs can be dropped by the executor, so only the latest one resumes adapter monitoring.
+    private int latestDiffId = 0;
+    private boolean diffPending = false;
 
     /**
      * @param adapter  Adapter with which this data set differ is associated.
@@ -46,14 +50,27 @@ public class AsyncDataSetDiffer {
      *                 Note the difference between this callback and the one passed in the constructor.
      */
     @UiThread
-    public void diffDataSet(final AsyncCallback callback) {
+    public void diffDataSet(AsyncCallback callback) {
+        diffDataSet(callback, null);
+    }
+
+    /**
+     * Same as {@link #diffDataSet(AsyncCallback)}, but runs {@code commitCallback} after the data set is submitted and
+     * all {@code notify} calls are done.
+     *
+     * Only the latest pending diff is guaranteed to run. Diffs superseded before they started are dropped, along with
+     * their {@code commitCallback}.
+     */
+    @UiThread
+    public void diffDataSet(final AsyncCallback callback, @Nullable final Runnable commitCallback) {
         // Pause adapter monitoring to avoid double counting changes.
-        if (runningDiffCount == 0) {
-            dataSetDiffer.stopObservingItems();
-        }
         // Ensure stop / start observing items only happens on the first / last (respectively) call to this method.
         // Note that between the original call and the runnable below runs, other calls to this method might happen.
-        runningDiffCount++;
+        if (!diffPending) {
+            dataSetDiffer.stopObservingItems();
+            diffPending = true;
+        }
+        final int diffId = ++latestDiffId;
 
         // Diff data set in the background, apply the changes and notify in the UI thread.
         executor.execute(new Runnable() {
@@ -68,16 +85,28 @@ public class AsyncDataSetDiffer {
                         opDiffHandler.notify(adapter);
 
                         // Resume adapter monitoring.
-                        if (runningDiffCount == 1) {
+                        if (diffId == latestDiffId) {
+                            diffPending = false;
                             dataSetDiffer.startObservingItems();
                         }
-                        runningDiffCount--;
+
+                        if (commitCallback != null) {
+                            commitCallback.run();
+                        }
                     }
                 });
             }
         });
     }
 
+    /**
+     * Returns whether there are diffs pending submission.
+     */
+    @UiThread
+    public boolean isDiffPending() {
+        return diffPending;
+    }
+
     /**
      * Callback for asynchronously calculating the difference between the current data set and a new one.
      *
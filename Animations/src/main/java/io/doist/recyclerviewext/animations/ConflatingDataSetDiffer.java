@@ -0,0 +1,140 @@
+package io.doist.recyclerviewext.animations;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+/**
+ * Bridges a stream of data sets into an {@link AsyncDataSetDiffer}, with backpressure.
+ *
+ * At most one diff runs at a time. Data sets submitted while a diff is running are conflated, ie. only the latest one
+ * is kept and diffed once the running diff is applied, so intermediate data sets are never diffed needlessly.
+ *
+ * This is meant to be fed from a reactive stream subscriber, calling
+ * {@link #submit(long, AsyncDataSetDiffer.AsyncCallback)} for each emission and using {@link OnVersionAppliedListener}
+ * to request more.
+ */
+public class ConflatingDataSetDiffer {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final AsyncDataSetDiffer asyncDataSetDiffer;
+
+    private final Object lock = new Object();
+    // Guarded by lock.
+    private AsyncDataSetDiffer.AsyncCallback pendingCallback;
+    private long pendingVersion;
+    private boolean running;
+
+    private volatile long appliedVersion = -1;
+
+    private OnVersionAppliedListener listener;
+
+    private final Runnable diffNextRunnable = new Runnable() {
+        @Override
+        public void run() {
+            diffNext();
+        }
+    };
+
+    /**
+     * @param asyncDataSetDiffer Differ to which data sets are submitted. It shouldn't be used directly while this
+     *                           class is in use.
+     */
+    public ConflatingDataSetDiffer(@NonNull AsyncDataSetDiffer asyncDataSetDiffer) {
+        this.asyncDataSetDiffer = asyncDataSetDiffer;
+    }
+
+    /**
+     * Submits a new data set, replacing any data set still waiting to be diffed.
+     *
+     * @param version  Version of the data set, reported back when it's applied. Should increase with each call.
+     * @param callback Callback that provides information about the items *to be set* in the adapter.
+     */
+    @AnyThread
+    public void submit(long version, @NonNull AsyncDataSetDiffer.AsyncCallback callback) {
+        boolean schedule;
+        synchronized (lock) {
+            schedule = pendingCallback == null && !running;
+            pendingCallback = callback;
+            pendingVersion = version;
+        }
+        if (schedule) {
+            handler.post(diffNextRunnable);
+        }
+    }
+
+    /**
+     * Drops the data set waiting to be diffed, if any. A diff already running is still applied.
+     */
+    @AnyThread
+    public void cancel() {
+        synchronized (lock) {
+            pendingCallback = null;
+        }
+    }
+
+    /**
+     * Returns the version of the latest data set applied to the adapter, or -1 if none was.
+     */
+    @AnyThread
+    public long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    /**
+     * Returns whether there is a data set being diffed or waiting to be diffed.
+     */
+    @AnyThread
+    public boolean isBusy() {
+        synchronized (lock) {
+            return running || pendingCallback != null;
+        }
+    }
+
+    public void setOnVersionAppliedListener(@Nullable OnVersionAppliedListener listener) {
+        this.listener = listener;
+    }
+
+    @UiThread
+    private void diffNext() {
+        AsyncDataSetDiffer.AsyncCallback callback;
+        final long version;
+        synchronized (lock) {
+            if (running || pendingCallback == null) {
+                return;
+            }
+            callback = pendingCallback;
+            version = pendingVersion;
+            pendingCallback = null;
+            running = true;
+        }
+
+        asyncDataSetDiffer.diffDataSet(callback, new Runnable() {
+            @Override
+            public void run() {
+                appliedVersion = version;
+                synchronized (lock) {
+                    running = false;
+                }
+
+                if (listener != null) {
+                    listener.onVersionApplied(version);
+                }
+
+                // Diff the data set that arrived in the meantime, if any.
+                diffNext();
+            }
+        });
+    }
+
+    public interface OnVersionAppliedListener {
+        /**
+         * Called in the UI thread once the data set with {@code version} is set and all {@code notify*} calls are
+         * done. This is the point at which the producer can be asked for the next data set.
+         */
+        void onVersionApplied(long version);
+    }
+}
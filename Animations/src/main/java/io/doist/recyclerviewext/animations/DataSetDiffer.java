@@ -48,6 +48,14 @@ public class DataSetDiffer {
     }
 
     void diffDataSet(DiffHandler diffHandler, Callback callback) {
+        diffItems(items, diffHandler, callback);
+    }
+
+    /**
+     * Updates {@code items} to match the items provided by {@code callback}, reporting each change to
+     * {@code diffHandler}.
+     */
+    static void diffItems(Items items, DiffHandler diffHandler, Callback callback) {
         // Prepare adapter items.
         int itemCount = callback.getItemCount();
         Items adapterItems = new Items(itemCount);
@@ -62,7 +70,7 @@ public class DataSetDiffer {
         int removeCount = 0;
         for (int i = 0; i < items.size(); i++) {
             // Check if the item was removed.
-            if (adapterItems.indexOfId(items.getId(i), i) == -1) {
+            if (!adapterItems.containsId(items.getId(i))) {
                 items.remove(i);
 
                 if (removePosition == -1) {
@@ -90,7 +98,9 @@ public class DataSetDiffer {
         int changeCount = 0;
         for (int i = 0; i < itemCount; i++) {
             // Check if the item was inserted.
-            int oldPosition = items.indexOfId(adapterItems.getId(i), i);
+            long id = adapterItems.getId(i);
+            // Items are checked for presence before searching, so that missing items don't require a full search.
+            int oldPosition = items.containsId(id) ? items.indexOfId(id, i) : -1;
             if (oldPosition != -1) {
                 // Item was in the previous data set, it can have moved and / or changed.
 
@@ -3,10 +3,14 @@ package io.doist.recyclerviewext.animations;
 /**
  * Helper class to store and manage arrays of ids and content hashes as efficiently as possible, by storing them
  * contiguously in a single array in the format [id1, contenthash1, id2, contenthash2, ...].
+ *
+ * The number of occurrences of each id is kept up to date as items change, so that checking whether an id is present
+ * doesn't require a search.
  */
 class Items {
     private long[] items;
     private int size;
+    private final LongIntMap idCounts;
 
     public Items() {
         this(0);
@@ -14,6 +18,7 @@ class Items {
 
     public Items(int capacity) {
         items = new long[capacity*2];
+        idCounts = new LongIntMap(capacity);
     }
 
     public long getId(int index) {
@@ -28,8 +33,14 @@ class Items {
         return size;
     }
 
+    public boolean containsId(long id) {
+        return idCounts.containsKey(id);
+    }
+
     public void setId(int index, long id) {
+        removeId(items[index * 2]);
         items[index * 2] = id;
+        addId(id);
     }
 
     public void setContentHash(int index, long contentHash) {
@@ -43,6 +54,7 @@ class Items {
         items[size * 2] = id;
         items[size * 2 + 1] = contentHash;
         size++;
+        addId(id);
     }
 
     public void add(int index, long id, long contentHash) {
@@ -53,6 +65,7 @@ class Items {
         items[index * 2] = id;
         items[index * 2 + 1] = contentHash;
         size++;
+        addId(id);
     }
 
     public void remove(int index) {
@@ -60,12 +73,16 @@ class Items {
     }
 
     public void remove(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            removeId(items[i * 2]);
+        }
         System.arraycopy(items, toIndex * 2, items, fromIndex * 2, (size - toIndex) * 2);
         size -= toIndex - fromIndex;
     }
 
     public void clear() {
         size = 0;
+        idCounts.clear();
     }
 
     public void ensureCapacity(int minimumCapacity) {
@@ -101,6 +118,19 @@ class Items {
         return -1;
     }
 
+    private void addId(long id) {
+        idCounts.put(id, idCounts.get(id, 0) + 1);
+    }
+
+    private void removeId(long id) {
+        int count = idCounts.get(id, 0);
+        if (count > 1) {
+            idCounts.put(id, count - 1);
+        } else {
+            idCounts.remove(id);
+        }
+    }
+
     private int getNextSize() {
         return size < 10 ? 10 : size + size / 2;
     }
@@ -0,0 +1,142 @@
+package io.doist.recyclerviewext.animations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter backed by a {@link List}, which animates between lists submitted via {@link #submitList(List)}.
+ *
+ * Differences are calculated in a background thread using {@link AsyncDataSetDiffer}. Each submitted list is copied
+ * into an immutable snapshot, so it's safe to keep modifying the original list after submitting it. When several lists
+ * are submitted in quick succession, only the latest is guaranteed to be diffed and committed.
+ *
+ * Never use any of the {@code notify*} methods while a diff is pending (see {@link #isDiffPending()}).
+ */
+public abstract class ListAnimatedAdapter<T, VH extends RecyclerView.ViewHolder>
+        extends RecyclerView.Adapter<VH>
+        implements DataSetDiffer.Callback {
+
+    private final ItemCallback<T> itemCallback;
+    private final AsyncDataSetDiffer asyncDataSetDiffer;
+
+    private List<T> list = Collections.emptyList();
+
+    /**
+     * @param itemCallback Callback that provides the id and content hash of each item.
+     */
+    protected ListAnimatedAdapter(@NonNull ItemCallback<T> itemCallback) {
+        this.itemCallback = itemCallback;
+        this.asyncDataSetDiffer = new AsyncDataSetDiffer(this, this);
+    }
+
+    /**
+     * Returns the list currently displayed by the adapter. It's immutable and updated when a submitted list is
+     * committed, not when {@link #submitList(List)} is called.
+     */
+    @NonNull
+    public List<T> getCurrentList() {
+        return list;
+    }
+
+    public T getItem(int position) {
+        return list.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return list.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return itemCallback.getItemId(list.get(position));
+    }
+
+    @Override
+    public long getItemContentHash(int position) {
+        return itemCallback.getItemContentHash(list.get(position));
+    }
+
+    /**
+     * @see #submitList(List, Runnable)
+     */
+    @UiThread
+    public void submitList(@Nullable List<T> list) {
+        submitList(list, null);
+    }
+
+    /**
+     * Submits a new list to be diffed in the background, and then displayed.
+     *
+     * @param list           List to display, {@code null} is treated as an empty list.
+     * @param commitCallback Runs after {@code list} is set and all {@code notify*} calls are done. It's dropped along
+     *                       with {@code list} if another list is submitted before this one starts being diffed.
+     */
+    @UiThread
+    public void submitList(@Nullable List<T> list, @Nullable final Runnable commitCallback) {
+        final List<T> snapshot =
+                list != null && !list.isEmpty() ? Collections.unmodifiableList(new ArrayList<>(list))
+                                                : Collections.<T>emptyList();
+        asyncDataSetDiffer.diffDataSet(new AsyncDataSetDiffer.AsyncCallback() {
+            @Override
+            public int getItemCount() {
+                return snapshot.size();
+            }
+
+            @Override
+            public long getItemId(int position) {
+                return itemCallback.getItemId(snapshot.get(position));
+            }
+
+            @Override
+            public long getItemContentHash(int position) {
+                return itemCallback.getItemContentHash(snapshot.get(position));
+            }
+
+            @Override
+            public void submit() {
+                List<T> previousList = ListAnimatedAdapter.this.list;
+                ListAnimatedAdapter.this.list = snapshot;
+                onCurrentListChanged(previousList, snapshot);
+            }
+        }, commitCallback);
+    }
+
+    /**
+     * Returns whether there are submitted lists pending commit.
+     */
+    @UiThread
+    public boolean isDiffPending() {
+        return asyncDataSetDiffer.isDiffPending();
+    }
+
+    /**
+     * Called when the current list is updated, right before the corresponding {@code notify*} calls.
+     */
+    protected void onCurrentListChanged(@NonNull List<T> previousList, @NonNull List<T> currentList) {
+    }
+
+    /**
+     * Callback that provides the id and content hash of each item. Called both from a background thread, while
+     * calculating differences, and from the UI thread, through the adapter, so it must be thread-safe.
+     *
+     * @see DataSetDiffer.Callback
+     */
+    public interface ItemCallback<T> {
+        /**
+         * Return a unique id for this item, which is used to locate it in the data set.
+         */
+        long getItemId(@NonNull T item);
+
+        /**
+         * Return a content hash of this item, which is used to detect changes in it.
+         */
+        long getItemContentHash(@NonNull T item);
+    }
+}
@@ -0,0 +1,131 @@
+package io.doist.recyclerviewext.animations;
+
+import java.util.Arrays;
+
+/**
+ * Helper class to map long keys to non-negative int values without boxing, using open addressing with linear probing.
+ * Values are stored incremented by one, so that zero marks an empty slot.
+ */
+class LongIntMap {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        this(0);
+    }
+
+    public LongIntMap(int capacity) {
+        allocate(tableSizeFor(capacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key, -1) != -1;
+    }
+
+    public int get(long key, int defaultValue) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == 0) {
+                return defaultValue;
+            } else if (keys[i] == key) {
+                return value - 1;
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        if (size >= keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (values[i] == 0) {
+                keys[i] = key;
+                values[i] = value + 1;
+                size++;
+                return;
+            } else if (keys[i] == key) {
+                values[i] = value + 1;
+                return;
+            }
+        }
+    }
+
+    public void remove(long key) {
+        for (int i = hash(key) & mask; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                deleteSlot(i);
+                size--;
+                return;
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public void ensureCapacity(int minimumCapacity) {
+        int tableSize = tableSizeFor(minimumCapacity);
+        if (tableSize > keys.length) {
+            rehash(tableSize);
+        }
+    }
+
+    /**
+     * Empties {@code slot}, shifting back the entries that follow it so that they can still be found.
+     */
+    private void deleteSlot(int slot) {
+        values[slot] = 0;
+        for (int i = (slot + 1) & mask; values[i] != 0; i = (i + 1) & mask) {
+            int home = hash(keys[i]) & mask;
+            // Keep the entry in place if its home slot is cyclically in (slot, i].
+            boolean inPlace = slot <= i ? (slot < home && home <= i) : (slot < home || home <= i);
+            if (!inPlace) {
+                keys[slot] = keys[i];
+                values[slot] = values[i];
+                values[i] = 0;
+                slot = i;
+            }
+        }
+    }
+
+    private void rehash(int tableSize) {
+        long[] keys = this.keys;
+        int[] values = this.values;
+        allocate(tableSize);
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != 0) {
+                put(keys[i], values[i] - 1);
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        mask = tableSize - 1;
+        size = 0;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int tableSize = 8;
+        while (tableSize * LOAD_FACTOR <= capacity) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -36,14 +36,21 @@ class OpDiffHandler implements DiffHandler {
     }
 
     public void notify(RecyclerView.Adapter adapter) {
+        notify(adapter, 0);
+    }
+
+    /**
+     * Notifies {@code adapter} of all operations, shifting their positions by {@code offset}.
+     */
+    public void notify(RecyclerView.Adapter adapter, int offset) {
         for (Op op : ops) {
-            op.notify(adapter);
+            op.notify(adapter, offset);
         }
         ops.clear();
     }
 
     public abstract static class Op {
-        public abstract void notify(RecyclerView.Adapter adapter);
+        public abstract void notify(RecyclerView.Adapter adapter, int offset);
 
         static class Change extends Op {
             private final int positionStart;
@@ -55,8 +62,8 @@ class OpDiffHandler implements DiffHandler {
             }
 
             @Override
-            public void notify(RecyclerView.Adapter adapter) {
-                adapter.notifyItemRangeChanged(positionStart, itemCount);
+            public void notify(RecyclerView.Adapter adapter, int offset) {
+                adapter.notifyItemRangeChanged(offset + positionStart, itemCount);
             }
         }
 
@@ -70,8 +77,8 @@ class OpDiffHandler implements DiffHandler {
             }
 
             @Override
-            public void notify(RecyclerView.Adapter adapter) {
-                adapter.notifyItemRangeInserted(positionStart, itemCount);
+            public void notify(RecyclerView.Adapter adapter, int offset) {
+                adapter.notifyItemRangeInserted(offset + positionStart, itemCount);
             }
         }
 
@@ -85,8 +92,8 @@ class OpDiffHandler implements DiffHandler {
             }
 
             @Override
-            public void notify(RecyclerView.Adapter adapter) {
-                adapter.notifyItemRangeRemoved(positionStart, itemCount);
+            public void notify(RecyclerView.Adapter adapter, int offset) {
+                adapter.notifyItemRangeRemoved(offset + positionStart, itemCount);
             }
         }
 
@@ -100,8 +107,8 @@ class OpDiffHandler implements DiffHandler {
             }
 
             @Override
-            public void notify(RecyclerView.Adapter adapter) {
-                adapter.notifyItemMoved(fromPosition, toPosition);
+            public void notify(RecyclerView.Adapter adapter, int offset) {
+                adapter.notifyItemMoved(offset + fromPosition, offset + toPosition);
             }
         }
     }
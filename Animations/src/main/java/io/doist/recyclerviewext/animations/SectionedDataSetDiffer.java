@@ -0,0 +1,203 @@
+package io.doist.recyclerviewext.animations;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adds functionality to animate differences between an adapter's data set and a new one, when the data set is a
+ * concatenation of independent sections.
+ *
+ * Each section keeps its own snapshot and version. Only sections whose version changed are diffed, in parallel and in
+ * background threads, and their changes are shifted by the section's offset before being notified.
+ *
+ * Sections are matched by index. When using this class, *never* update your data set or use any of the
+ * {@code notify*} methods other than through {@link #diffSections(SectionedCallback)}.
+ *
+ * @see AsyncDataSetDiffer
+ */
+public class SectionedDataSetDiffer {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Executor executor = AsyncTask.THREAD_POOL_EXECUTOR;
+
+    private final RecyclerView.Adapter adapter;
+
+    private final List<Section> sections = new ArrayList<>();
+    // Position of the first item of each section in the adapter, followed by the total item count.
+    private int[] offsets = new int[]{0};
+
+    private boolean running;
+    private SectionedCallback pendingCallback;
+
+    /**
+     * @param adapter Adapter with which this data set differ is associated.
+     */
+    public SectionedDataSetDiffer(RecyclerView.Adapter adapter) {
+        if (!adapter.hasStableIds()) {
+            adapter.setHasStableIds(true);
+        }
+        this.adapter = adapter;
+    }
+
+    /**
+     * Returns the number of sections currently in the adapter.
+     */
+    @UiThread
+    public int getSectionCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the adapter position of the first item in {@code section}.
+     */
+    @UiThread
+    public int getSectionOffset(int section) {
+        return offsets[section];
+    }
+
+    /**
+     * Analyzes the sections whose version changed in the background using the supplied {@link SectionedCallback}.
+     * When done, calls {@link SectionedCallback#submit()} to ensure the data set is updated and triggers all necessary
+     * {@code notify} calls.
+     *
+     * If a diff is already running, {@code callback} is diffed after it's done, replacing any other pending callback.
+     *
+     * @param callback Callback that provides information about the sections *to be set* in the adapter.
+     */
+    @UiThread
+    public void diffSections(@NonNull SectionedCallback callback) {
+        if (running) {
+            pendingCallback = callback;
+        } else {
+            running = true;
+            diffSectionsInternal(callback);
+        }
+    }
+
+    @UiThread
+    private void diffSectionsInternal(final SectionedCallback callback) {
+        final int sectionCount = callback.getSectionCount();
+        final OpDiffHandler[] opDiffHandlers = new OpDiffHandler[sectionCount];
+        final long[] versions = new long[sectionCount];
+
+        // Find out which sections changed. New sections start empty and are always diffed.
+        List<Integer> changedSections = new ArrayList<>();
+        for (int i = 0; i < sectionCount; i++) {
+            versions[i] = callback.getSectionVersion(i);
+            if (i >= sections.size()) {
+                sections.add(new Section());
+                changedSections.add(i);
+            } else if (sections.get(i).version != versions[i]) {
+                changedSections.add(i);
+            }
+        }
+
+        final Runnable apply = new Runnable() {
+            @Override
+            public void run() {
+                apply(callback, opDiffHandlers, versions);
+            }
+        };
+
+        if (changedSections.isEmpty()) {
+            apply.run();
+            return;
+        }
+
+        // Diff changed sections in parallel and apply the changes once all are done.
+        final AtomicInteger remaining = new AtomicInteger(changedSections.size());
+        for (final int section : changedSections) {
+            final Items items = sections.get(section).items;
+            final OpDiffHandler opDiffHandler = new OpDiffHandler();
+            opDiffHandlers[section] = opDiffHandler;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    DataSetDiffer.diffItems(items, opDiffHandler, callback.getSection(section));
+                    if (remaining.decrementAndGet() == 0) {
+                        handler.post(apply);
+                    }
+                }
+            });
+        }
+    }
+
+    @UiThread
+    private void apply(SectionedCallback callback, OpDiffHandler[] opDiffHandlers, long[] versions) {
+        callback.submit();
+
+        // Notify changes section by section. Previous sections are already up to date, so the offset of each section
+        // is the sum of the new sizes of the sections before it.
+        int sectionCount = versions.length;
+        int[] offsets = new int[sectionCount + 1];
+        int offset = 0;
+        for (int i = 0; i < sectionCount; i++) {
+            Section section = sections.get(i);
+            if (opDiffHandlers[i] != null) {
+                opDiffHandlers[i].notify(adapter, offset);
+            }
+            section.version = versions[i];
+            offsets[i] = offset;
+            offset += section.items.size();
+        }
+        offsets[sectionCount] = offset;
+
+        // Remove all sections that are gone.
+        int removedCount = 0;
+        while (sections.size() > sectionCount) {
+            removedCount += sections.remove(sections.size() - 1).items.size();
+        }
+        if (removedCount > 0) {
+            adapter.notifyItemRangeRemoved(offset, removedCount);
+        }
+
+        this.offsets = offsets;
+
+        // Diff the callback that arrived in the meantime, if any.
+        SectionedCallback pendingCallback = this.pendingCallback;
+        this.pendingCallback = null;
+        if (pendingCallback != null) {
+            diffSectionsInternal(pendingCallback);
+        } else {
+            running = false;
+        }
+    }
+
+    private static class Section {
+        final Items items = new Items();
+        long version;
+    }
+
+    /**
+     * Callback for asynchronously calculating the difference between the current sections and new ones.
+     */
+    public interface SectionedCallback {
+        int getSectionCount();
+
+        /**
+         * Return the version of this section, which changes whenever any of its items change. Sections with the same
+         * version as the one previously set are not diffed.
+         */
+        long getSectionVersion(int section);
+
+        /**
+         * Return a callback that provides information about the items in this section. Called in a background thread.
+         */
+        @NonNull
+        DataSetDiffer.Callback getSection(int section);
+
+        /**
+         * Submit the data set changes, ie. set your adapter collection to the new collection.
+         */
+        void submit();
+    }
+}
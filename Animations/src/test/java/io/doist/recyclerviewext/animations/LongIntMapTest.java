@@ -0,0 +1,82 @@
+package io.doist.recyclerviewext.animations;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongIntMapTest {
+    @Test
+    public void put_replacesValues() {
+        LongIntMap map = new LongIntMap();
+
+        map.put(1, 10);
+        map.put(-1, 0);
+        map.put(1, 11);
+
+        assertEquals(2, map.size());
+        assertEquals(11, map.get(1, -1));
+        assertEquals(0, map.get(-1, -1));
+        assertEquals(-1, map.get(2, -1));
+        assertTrue(map.containsKey(-1));
+        assertFalse(map.containsKey(2));
+    }
+
+    @Test
+    public void remove_keepsOtherKeysReachable() {
+        LongIntMap map = new LongIntMap();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, (int) key);
+        }
+
+        for (long key = 0; key < 100; key += 2) {
+            map.remove(key);
+        }
+        map.remove(1000);
+
+        assertEquals(50, map.size());
+        for (long key = 0; key < 100; key++) {
+            assertEquals(key % 2 == 0 ? -1 : (int) key, map.get(key, -1));
+        }
+    }
+
+    @Test
+    public void clear_removesAllKeys() {
+        LongIntMap map = new LongIntMap(4);
+        map.ensureCapacity(100);
+        map.put(Long.MIN_VALUE, 1);
+        map.put(Long.MAX_VALUE, 2);
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+        assertFalse(map.containsKey(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        Random random = new Random(0);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(300);
+            if (random.nextInt(100) < 55) {
+                int value = random.nextInt(1000);
+                expected.put(key, value);
+                map.put(key, value);
+            } else {
+                expected.remove(key);
+                map.remove(key);
+            }
+            Integer value = expected.get(key);
+            assertEquals(value != null ? value : -1, map.get(key, -1));
+            assertEquals(expected.size(), map.size());
+        }
+    }
+}
@@ -68,6 +68,14 @@ public class DemoAdapter extends AnimatedAdapter<BindableViewHolder>
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull BindableViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (mSelector != null && mSelector.bindSelectionOnly(holder, payloads)) {
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull BindableViewHolder holder, int position) {
         if (mSelector != null) {
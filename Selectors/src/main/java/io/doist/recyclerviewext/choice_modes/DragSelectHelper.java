@@ -0,0 +1,262 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewParent;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Selects a range of items by dragging over them, similarly to most gallery apps.
+ *
+ * Call {@link #start(int)} during a touch event, typically from a long click, to start selecting from that position.
+ * As the touch moves, all items between the start position and the one being touched are selected, and items left out
+ * of the range are unselected again. The {@link RecyclerView} scrolls when the touch is close to its edges.
+ *
+ * Selection changes are applied at most once per frame, as a single batch in {@link Selector}.
+ */
+public class DragSelectHelper implements RecyclerView.OnItemTouchListener {
+    /**
+     * Maximum scroll speed, in dips per frame.
+     */
+    private static final float SCROLL_SPEED_MAX_DP = 16;
+
+    /**
+     * Edge margin from which to start scrolling.
+     */
+    private static final float SCROLL_MARGIN_DP = 64;
+
+    private final Selector mSelector;
+    private final RecyclerView mRecyclerView;
+    private final float mScrollSpeedMax;
+    private final float mScrollMargin;
+
+    private boolean mSelecting;
+    private int mStartPosition;
+    // Last position touched, and last position applied to the selector.
+    private int mEndPosition;
+    private int mAppliedEndPosition;
+    private float mTouchX;
+    private float mTouchY;
+    private int mScrollSpeed;
+
+    // Ids selected during this drag, which are unselected again if they leave the range.
+    private final LongLinkedHashSet mDragSelectedIds = new LongLinkedHashSet();
+
+    private boolean mFramePosted;
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mFramePosted = false;
+            onFrame();
+        }
+    };
+
+    /**
+     * Creates a {@link DragSelectHelper} for {@code selector}, and adds it to the selector's {@link RecyclerView}.
+     */
+    public DragSelectHelper(@NonNull Selector selector) {
+        mSelector = selector;
+        mRecyclerView = selector.mRecyclerView;
+        DisplayMetrics dm = mRecyclerView.getResources().getDisplayMetrics();
+        mScrollSpeedMax = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, SCROLL_SPEED_MAX_DP, dm);
+        mScrollMargin = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, SCROLL_MARGIN_DP, dm);
+        mRecyclerView.addOnItemTouchListener(this);
+    }
+
+    /**
+     * Removes this helper from the {@link RecyclerView}, stopping the current drag if any.
+     */
+    public void detach() {
+        stop();
+        mRecyclerView.removeOnItemTouchListener(this);
+    }
+
+    /**
+     * Starts selecting from {@code position}, which is selected immediately. The range is extended with the touch
+     * event in progress.
+     *
+     * @return {@code true} if selection started, {@code false} if not.
+     */
+    public boolean start(int position) {
+        if (position == RecyclerView.NO_POSITION || position >= mSelector.mAdapter.getItemCount()) {
+            return false;
+        }
+        stop();
+
+        mSelecting = true;
+        mStartPosition = mEndPosition = mAppliedEndPosition = position;
+        long id = mSelector.mAdapter.getItemId(position);
+        if (!mSelector.isSelected(id)) {
+            mSelector.setSelected(id, true);
+            mDragSelectedIds.add(id);
+        }
+
+        // Prevent ancestors from intercepting touch events.
+        ViewParent parent = mRecyclerView.getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+        return true;
+    }
+
+    /**
+     * Stops selecting, keeping the current selection.
+     */
+    public void stop() {
+        if (mSelecting) {
+            applyRange();
+            mSelecting = false;
+            mScrollSpeed = 0;
+            mDragSelectedIds.clear();
+            mRecyclerView.removeCallbacks(mFrameRunnable);
+            mFramePosted = false;
+        }
+    }
+
+    public boolean isSelecting() {
+        return mSelecting;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        return handleMotionEvent(e);
+    }
+
+    @Override
+    public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        handleMotionEvent(e);
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        if (disallowIntercept) {
+            stop();
+        }
+    }
+
+    private boolean handleMotionEvent(@NonNull MotionEvent event) {
+        if (mSelecting) {
+            int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_MOVE) {
+                mTouchX = event.getX();
+                mTouchY = event.getY();
+                updateEndPosition();
+                updateScrollSpeed();
+                postFrame();
+                return true;
+            }
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                stop();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onFrame() {
+        if (!mSelecting) {
+            return;
+        }
+
+        if (mScrollSpeed != 0) {
+            if (isVertical()) {
+                mRecyclerView.scrollBy(0, mScrollSpeed);
+            } else {
+                mRecyclerView.scrollBy(mScrollSpeed, 0);
+            }
+            // The touch is now over a different item.
+            updateEndPosition();
+        }
+        applyRange();
+
+        if (mScrollSpeed != 0) {
+            postFrame();
+        }
+    }
+
+    private void postFrame() {
+        if (!mFramePosted) {
+            mFramePosted = true;
+            mRecyclerView.postOnAnimation(mFrameRunnable);
+        }
+    }
+
+    /**
+     * Updates the end position to the item under the touch, clamped to the {@link RecyclerView}'s bounds so that items
+     * at the edges are reached when the touch goes past them.
+     */
+    private void updateEndPosition() {
+        float x = Math.min(Math.max(mTouchX, 0), mRecyclerView.getWidth() - 1);
+        float y = Math.min(Math.max(mTouchY, 0), mRecyclerView.getHeight() - 1);
+        View child = mRecyclerView.findChildViewUnder(x, y);
+        if (child != null) {
+            int position = mRecyclerView.getChildAdapterPosition(child);
+            if (position != RecyclerView.NO_POSITION) {
+                mEndPosition = position;
+            }
+        }
+    }
+
+    /**
+     * Updates the scroll speed according to how far into the edge margins the touch is, up to {@code mScrollSpeedMax}.
+     */
+    private void updateScrollSpeed() {
+        float touch = isVertical() ? mTouchY : mTouchX;
+        int size = isVertical() ? mRecyclerView.getHeight() : mRecyclerView.getWidth();
+        float fraction;
+        if (touch < mScrollMargin) {
+            fraction = -(mScrollMargin - touch) / mScrollMargin;
+        } else if (touch > size - mScrollMargin) {
+            fraction = (touch - (size - mScrollMargin)) / mScrollMargin;
+        } else {
+            fraction = 0f;
+        }
+        mScrollSpeed = (int) (mScrollSpeedMax * Math.max(-1f, Math.min(fraction, 1f)));
+    }
+
+    /**
+     * Selects positions that entered the range since the last call, and unselects those that left it, in one batch.
+     * Only the edges of the range are visited, as the start position is always in both ranges.
+     */
+    private void applyRange() {
+        if (mEndPosition == mAppliedEndPosition) {
+            return;
+        }
+
+        int oldLow = Math.min(mStartPosition, mAppliedEndPosition);
+        int oldHigh = Math.max(mStartPosition, mAppliedEndPosition);
+        int newLow = Math.min(mStartPosition, mEndPosition);
+        int newHigh = Math.max(mStartPosition, mEndPosition);
+        mAppliedEndPosition = mEndPosition;
+
+        mSelector.startBatch();
+        updateRange(Math.min(oldLow, newLow), Math.max(oldLow, newLow) - 1, newLow, newHigh);
+        updateRange(Math.min(oldHigh, newHigh) + 1, Math.max(oldHigh, newHigh), newLow, newHigh);
+        mSelector.endBatch();
+    }
+
+    private void updateRange(int start, int end, int newLow, int newHigh) {
+        RecyclerView.Adapter adapter = mSelector.mAdapter;
+        end = Math.min(end, adapter.getItemCount() - 1);
+        for (int position = start; position <= end; position++) {
+            long id = adapter.getItemId(position);
+            if (position >= newLow && position <= newHigh) {
+                if (!mSelector.isSelected(id)) {
+                    mSelector.setSelected(id, true);
+                    mDragSelectedIds.add(id);
+                }
+            } else if (mDragSelectedIds.remove(id)) {
+                mSelector.setSelected(id, false);
+            }
+        }
+    }
+
+    private boolean isVertical() {
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        return layoutManager == null || layoutManager.canScrollVertically();
+    }
+}
@@ -0,0 +1,121 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Encodes ids compactly, to keep saved instance state small even with huge selections.
+ *
+ * Ids are grouped in runs of ascending contiguous ids, keeping their order. Each run is written as two varints: its
+ * signed distance from the end of the previous run, zigzag encoded, and its length minus one. Contiguous ids take a few
+ * bytes in total, and sparse ids take two or three bytes each instead of eight.
+ */
+final class IdRangeCodec {
+    private IdRangeCodec() {
+    }
+
+    /**
+     * Encodes {@code ids}, in any order, which is kept.
+     */
+    static byte[] encode(long[] ids) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previousEnd = 0;
+        int i = 0;
+        while (i < ids.length) {
+            long start = ids[i];
+            long end = start;
+            while (++i < ids.length && ids[i] == end + 1) {
+                end = ids[i];
+            }
+            writeRange(out, previousEnd, start, end);
+            previousEnd = end;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes sorted, disjoint {@code ranges} in the format [start1, end1, start2, end2, ...].
+     */
+    static byte[] encodeRanges(long[] ranges) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previousEnd = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            writeRange(out, previousEnd, ranges[i], ranges[i + 1]);
+            previousEnd = ranges[i + 1];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes ids encoded by {@link #encode(long[])}, in their original order.
+     */
+    static long[] decode(byte[] encoded) {
+        long[] ranges = decodeRanges(encoded);
+        long size = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            size += ranges[i + 1] - ranges[i] + 1;
+        }
+
+        long[] ids = new long[(int) size];
+        int j = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (long id = ranges[i]; ; id++) {
+                ids[j++] = id;
+                if (id == ranges[i + 1]) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Decodes ranges encoded by {@link #encode(long[])} or {@link #encodeRanges(long[])}, in the format
+     * [start1, end1, start2, end2, ...].
+     */
+    static long[] decodeRanges(byte[] encoded) {
+        long[] ranges = new long[16];
+        int count = 0;
+        long previousEnd = 0;
+        int[] offset = new int[1];
+        while (offset[0] < encoded.length) {
+            long distance = readVarint(encoded, offset);
+            long start = previousEnd + ((distance >>> 1) ^ -(distance & 1));
+            long end = start + readVarint(encoded, offset);
+            if (count + 2 > ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[count++] = start;
+            ranges[count++] = end;
+            previousEnd = end;
+        }
+        return Arrays.copyOf(ranges, count);
+    }
+
+    private static void writeRange(ByteArrayOutputStream out, long previousEnd, long start, long end) {
+        // Overflows are fine, as values are read back with the same wrapping arithmetic.
+        long distance = start - previousEnd;
+        writeVarint(out, (distance << 1) ^ (distance >> 63));
+        writeVarint(out, end - start);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] encoded, int[] offset) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = encoded[offset[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
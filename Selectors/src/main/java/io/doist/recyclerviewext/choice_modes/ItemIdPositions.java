@@ -0,0 +1,263 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import java.util.Arrays;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Keeps a copy of the adapter's item ids by position and maps them back to their positions, to avoid iterating the
+ * adapter on every lookup. The {@code on*} methods must be called for every adapter change. Ids are only copied on the
+ * first lookup, and copied again on the next one after a full change or a change that doesn't fit the ids as last
+ * seen, eg. if the adapter was notified twice. Until then, only the item count is kept up to date.
+ *
+ * Positions after a change are reindexed lazily, on the next lookup. Ids that are no longer present can still be
+ * mapped, so lookups are checked against the ids by position.
+ *
+ * Uses a hash table with open addressing and linear probing. Positions are stored incremented by one, so that zero
+ * marks an empty slot.
+ */
+class ItemIdPositions {
+    private final RecyclerView.Adapter mAdapter;
+
+    // Ids by position, if loaded.
+    private long[] mIds = new long[0];
+    private boolean mIdsLoaded;
+    private int mItemCount;
+
+    // Positions by id.
+    private long[] mKeys = new long[0];
+    private int[] mValues = new int[0];
+    private int mMask = -1;
+    private int mSize;
+
+    // Positions before this are indexed.
+    private int mIndexedCount = 0;
+
+    ItemIdPositions(RecyclerView.Adapter adapter) {
+        mAdapter = adapter;
+        mItemCount = adapter.getItemCount();
+    }
+
+    /**
+     * Returns the number of items, as last notified.
+     */
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * Returns whether the ids are loaded, ie. {@link #getItemId(int)} returns them as last notified instead of loading
+     * them from the adapter.
+     */
+    public boolean hasItemIds() {
+        return mIdsLoaded;
+    }
+
+    /**
+     * Returns the id at {@code position}, as last notified if loaded.
+     */
+    public long getItemId(int position) {
+        if (!mIdsLoaded) {
+            load();
+        }
+        return mIds[position];
+    }
+
+    /**
+     * Returns the position of {@code id}, or {@link RecyclerView#NO_POSITION} if it's not in the adapter.
+     */
+    public int getPosition(long id) {
+        if (!mIdsLoaded) {
+            load();
+        }
+        if (mIndexedCount < mItemCount) {
+            index();
+        }
+        if (mSize == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+
+        for (int i = hash(id) & mMask; ; i = (i + 1) & mMask) {
+            int value = mValues[i];
+            if (value == 0) {
+                return RecyclerView.NO_POSITION;
+            } else if (mKeys[i] == id) {
+                int position = value - 1;
+                if (position < mItemCount && mIds[position] == id) {
+                    return position;
+                } else {
+                    return RecyclerView.NO_POSITION;
+                }
+            }
+        }
+    }
+
+    public void onChanged() {
+        unload();
+    }
+
+    private void load() {
+        int itemCount = mAdapter.getItemCount();
+        mItemCount = 0;
+        ensureIdsCapacity(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            mIds[i] = mAdapter.getItemId(i);
+        }
+        mItemCount = itemCount;
+        mIdsLoaded = true;
+        invalidateFrom(0);
+    }
+
+    private void unload() {
+        mItemCount = mAdapter.getItemCount();
+        mIdsLoaded = false;
+        invalidateFrom(0);
+    }
+
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        if (!mIdsLoaded) {
+            return;
+        }
+        if (positionStart + itemCount > mItemCount) {
+            unload();
+            return;
+        }
+
+        // Ids replaced at the same position are indexed right away, without reindexing the positions after them.
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            long id = mAdapter.getItemId(i);
+            if (mIds[i] != id) {
+                mIds[i] = id;
+                if (i < mIndexedCount) {
+                    put(id, i);
+                }
+            }
+        }
+    }
+
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (!mIdsLoaded) {
+            mItemCount += itemCount;
+            return;
+        }
+        if (positionStart > mItemCount || mItemCount + itemCount > mAdapter.getItemCount()) {
+            unload();
+            return;
+        }
+
+        ensureIdsCapacity(mItemCount + itemCount);
+        System.arraycopy(mIds, positionStart, mIds, positionStart + itemCount, mItemCount - positionStart);
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            mIds[i] = mAdapter.getItemId(i);
+        }
+        mItemCount += itemCount;
+        invalidateFrom(positionStart);
+    }
+
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (!mIdsLoaded) {
+            mItemCount = Math.max(mItemCount - itemCount, 0);
+            return;
+        }
+        if (positionStart + itemCount > mItemCount) {
+            unload();
+            return;
+        }
+
+        System.arraycopy(mIds, positionStart + itemCount, mIds, positionStart, mItemCount - positionStart - itemCount);
+        mItemCount -= itemCount;
+        invalidateFrom(positionStart);
+    }
+
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (!mIdsLoaded) {
+            return;
+        }
+        if (Math.max(fromPosition, toPosition) + itemCount > mItemCount) {
+            unload();
+            return;
+        }
+
+        // RecyclerView only supports moving one item at a time.
+        for (int i = 0; i < itemCount; i++) {
+            int from = fromPosition > toPosition ? fromPosition + i : fromPosition;
+            int to = fromPosition > toPosition ? toPosition + i : toPosition;
+            long id = mIds[from];
+            if (from < to) {
+                System.arraycopy(mIds, from + 1, mIds, from, to - from);
+            } else {
+                System.arraycopy(mIds, to, mIds, to + 1, from - to);
+            }
+            mIds[to] = id;
+        }
+        invalidateFrom(Math.min(fromPosition, toPosition));
+    }
+
+    private void invalidateFrom(int position) {
+        mIndexedCount = Math.min(mIndexedCount, position);
+    }
+
+    private void index() {
+        // Start over if ids that are no longer present take over the table.
+        if (mSize > mItemCount * 2 + 16) {
+            Arrays.fill(mValues, 0);
+            mSize = 0;
+            mIndexedCount = 0;
+        }
+        ensureTableCapacity(mItemCount);
+        for (int i = mIndexedCount; i < mItemCount; i++) {
+            put(mIds[i], i);
+        }
+        mIndexedCount = mItemCount;
+    }
+
+    private void put(long id, int position) {
+        if (mSize * 2 >= mKeys.length) {
+            ensureTableCapacity(mSize + 1);
+        }
+        for (int i = hash(id) & mMask; ; i = (i + 1) & mMask) {
+            if (mValues[i] == 0) {
+                mKeys[i] = id;
+                mValues[i] = position + 1;
+                mSize++;
+                return;
+            } else if (mKeys[i] == id) {
+                mValues[i] = position + 1;
+                return;
+            }
+        }
+    }
+
+    private void ensureIdsCapacity(int capacity) {
+        if (capacity > mIds.length) {
+            long[] ids = mIds;
+            mIds = new long[Math.max(capacity, mItemCount + mItemCount / 2)];
+            System.arraycopy(ids, 0, mIds, 0, mItemCount);
+        }
+    }
+
+    private void ensureTableCapacity(int capacity) {
+        int tableSize = 16;
+        while (tableSize <= capacity * 2) {
+            tableSize <<= 1;
+        }
+        if (tableSize > mKeys.length) {
+            long[] keys = mKeys;
+            int[] values = mValues;
+            mKeys = new long[tableSize];
+            mValues = new int[tableSize];
+            mMask = tableSize - 1;
+            mSize = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != 0) {
+                    put(keys[i], values[i] - 1);
+                }
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
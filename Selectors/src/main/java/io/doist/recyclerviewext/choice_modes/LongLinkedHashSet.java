@@ -0,0 +1,230 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import java.util.Arrays;
+
+/**
+ * Set of longs that keeps insertion order, similarly to a {@code LinkedHashSet<Long>} but without boxing.
+ *
+ * Elements are stored contiguously in insertion order, with removed elements leaving holes that are compacted lazily.
+ * A hash table with open addressing and linear probing maps each element to its index.
+ */
+class LongLinkedHashSet {
+    private static final int MIN_CAPACITY = 8;
+
+    // Elements in insertion order. Removed elements are flagged in holes until compacted.
+    private long[] elements;
+    private boolean[] holes;
+    private int end;
+    private int size;
+
+    // Hash table of element indices incremented by one, so that zero marks an empty slot.
+    // Always at least twice as large as elements.
+    private int[] table;
+    private int mask;
+
+    public LongLinkedHashSet() {
+        this(0);
+    }
+
+    public LongLinkedHashSet(int capacity) {
+        allocate(Math.max(capacity, MIN_CAPACITY));
+    }
+
+    public LongLinkedHashSet(LongLinkedHashSet other) {
+        elements = other.elements.clone();
+        holes = other.holes.clone();
+        end = other.end;
+        size = other.size;
+        table = other.table.clone();
+        mask = other.mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long element) {
+        return table[find(element)] != 0;
+    }
+
+    /**
+     * Adds {@code element} to the end of the set, if not present.
+     *
+     * @return true if the set changed.
+     */
+    public boolean add(long element) {
+        int slot = find(element);
+        if (table[slot] != 0) {
+            return false;
+        }
+
+        if (end == elements.length) {
+            if (end - size >= size) {
+                compact();
+            } else {
+                resize(elements.length * 2);
+            }
+            slot = find(element);
+        }
+
+        elements[end] = element;
+        table[slot] = end + 1;
+        end++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes {@code element} from the set, if present.
+     *
+     * @return true if the set changed.
+     */
+    public boolean remove(long element) {
+        int slot = find(element);
+        int index = table[slot] - 1;
+        if (index == -1) {
+            return false;
+        }
+
+        holes[index] = true;
+        size--;
+        deleteSlot(slot);
+
+        if (size == 0) {
+            clear();
+        }
+        return true;
+    }
+
+    /**
+     * Removes all elements, keeping the capacity. Only the slots in use are emptied, so the cost depends on the number
+     * of elements added since the last clear rather than on the capacity.
+     */
+    public void clear() {
+        if (end > 0) {
+            // Each element is in the run of used slots starting at its home slot. Emptying each run up to the first
+            // empty slot, which may have been emptied with an earlier run, covers them all.
+            for (int i = 0; i < end; i++) {
+                if (!holes[i]) {
+                    for (int slot = hash(elements[i]) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                        table[slot] = 0;
+                    }
+                }
+            }
+            Arrays.fill(holes, 0, end, false);
+            end = 0;
+            size = 0;
+        }
+    }
+
+    public void ensureCapacity(int minimumCapacity) {
+        if (minimumCapacity > elements.length) {
+            resize(minimumCapacity);
+        }
+    }
+
+    /**
+     * Returns all elements in insertion order.
+     */
+    public long[] toArray() {
+        return toArray(new long[size]);
+    }
+
+    /**
+     * Copies all elements in insertion order to {@code array}, if large enough, or to a new array otherwise.
+     */
+    public long[] toArray(long[] array) {
+        if (array.length < size) {
+            array = new long[size];
+        }
+        if (end == size) {
+            System.arraycopy(elements, 0, array, 0, size);
+        } else {
+            for (int i = 0, j = 0; i < end; i++) {
+                if (!holes[i]) {
+                    array[j++] = elements[i];
+                }
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Returns the slot in which {@code element} is, or the empty slot where it should be added.
+     */
+    private int find(long element) {
+        for (int i = hash(element) & mask; ; i = (i + 1) & mask) {
+            int index = table[i] - 1;
+            if (index == -1 || elements[index] == element) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Empties {@code slot}, shifting back the entries that follow it so that they can still be found.
+     */
+    private void deleteSlot(int slot) {
+        table[slot] = 0;
+        for (int i = (slot + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int home = hash(elements[table[i] - 1]) & mask;
+            // Keep the entry in place if its home slot is cyclically in (slot, i].
+            boolean inPlace = slot <= i ? (slot < home && home <= i) : (slot < home || home <= i);
+            if (!inPlace) {
+                table[slot] = table[i];
+                table[i] = 0;
+                slot = i;
+            }
+        }
+    }
+
+    /**
+     * Moves all elements to the front, removing holes, and rebuilds the hash table.
+     */
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < end; i++) {
+            if (!holes[i]) {
+                elements[j++] = elements[i];
+            }
+        }
+        Arrays.fill(holes, 0, end, false);
+        end = j;
+        rebuildTable();
+    }
+
+    private void resize(int capacity) {
+        long[] elements = this.elements;
+        boolean[] holes = this.holes;
+        allocate(capacity);
+        System.arraycopy(elements, 0, this.elements, 0, end);
+        System.arraycopy(holes, 0, this.holes, 0, end);
+        rebuildTable();
+    }
+
+    private void allocate(int capacity) {
+        elements = new long[capacity];
+        holes = new boolean[capacity];
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        table = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    private void rebuildTable() {
+        Arrays.fill(table, 0);
+        for (int i = 0; i < end; i++) {
+            if (!holes[i]) {
+                table[find(elements[i])] = i + 1;
+            }
+        }
+    }
+
+    private static int hash(long element) {
+        long h = element * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,176 @@
+package io.doist.recyclerviewext.choice_modes;
+
+/**
+ * Set of longs stored as sorted, disjoint and non-adjacent ranges, so that contiguous elements take constant space.
+ *
+ * Lookups are done with a binary search over the ranges.
+ */
+class LongRangeSet {
+    // Inclusive bounds of each range, sorted.
+    private long[] mStarts;
+    private long[] mEnds;
+    private int mRangeCount;
+    // Number of elements in all ranges.
+    private long mSize;
+
+    public LongRangeSet() {
+        mStarts = new long[4];
+        mEnds = new long[4];
+    }
+
+    public long size() {
+        return mSize;
+    }
+
+    public int getRangeCount() {
+        return mRangeCount;
+    }
+
+    public boolean contains(long element) {
+        int index = indexOfRangeAtOrBefore(element);
+        return index != -1 && element <= mEnds[index];
+    }
+
+    /**
+     * Adds {@code element}, merging it with adjacent ranges.
+     *
+     * @return true if the set changed.
+     */
+    public boolean add(long element) {
+        int index = indexOfRangeAtOrBefore(element);
+        if (index != -1 && element <= mEnds[index]) {
+            return false;
+        }
+
+        boolean joinsPrevious = index != -1 && mEnds[index] + 1 == element;
+        boolean joinsNext = index + 1 < mRangeCount && mStarts[index + 1] - 1 == element;
+        if (joinsPrevious && joinsNext) {
+            mEnds[index] = mEnds[index + 1];
+            removeRange(index + 1);
+        } else if (joinsPrevious) {
+            mEnds[index] = element;
+        } else if (joinsNext) {
+            mStarts[index + 1] = element;
+        } else {
+            insertRange(index + 1, element, element);
+        }
+        mSize++;
+        return true;
+    }
+
+    /**
+     * Removes {@code element}, splitting its range if needed.
+     *
+     * @return true if the set changed.
+     */
+    public boolean remove(long element) {
+        int index = indexOfRangeAtOrBefore(element);
+        if (index == -1 || element > mEnds[index]) {
+            return false;
+        }
+
+        long start = mStarts[index];
+        long end = mEnds[index];
+        if (start == end) {
+            removeRange(index);
+        } else if (element == start) {
+            mStarts[index] = element + 1;
+        } else if (element == end) {
+            mEnds[index] = element - 1;
+        } else {
+            mEnds[index] = element - 1;
+            insertRange(index + 1, element + 1, end);
+        }
+        mSize--;
+        return true;
+    }
+
+    public void clear() {
+        mRangeCount = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Returns all elements, in ascending order.
+     */
+    public long[] toArray() {
+        long[] array = new long[(int) mSize];
+        int j = 0;
+        for (int i = 0; i < mRangeCount; i++) {
+            for (long element = mStarts[i]; element <= mEnds[i]; element++) {
+                array[j++] = element;
+                if (element == Long.MAX_VALUE) {
+                    break;
+                }
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Returns all ranges in the format [start1, end1, start2, end2, ...], to be restored with {@link #setRanges}.
+     */
+    public long[] getRanges() {
+        long[] ranges = new long[mRangeCount * 2];
+        for (int i = 0; i < mRangeCount; i++) {
+            ranges[i * 2] = mStarts[i];
+            ranges[i * 2 + 1] = mEnds[i];
+        }
+        return ranges;
+    }
+
+    /**
+     * Sets all ranges, in the format returned by {@link #getRanges()}.
+     */
+    public void setRanges(long[] ranges) {
+        int rangeCount = ranges.length / 2;
+        mStarts = new long[Math.max(rangeCount, 4)];
+        mEnds = new long[Math.max(rangeCount, 4)];
+        mSize = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            mStarts[i] = ranges[i * 2];
+            mEnds[i] = ranges[i * 2 + 1];
+            mSize += mEnds[i] - mStarts[i] + 1;
+        }
+        mRangeCount = rangeCount;
+    }
+
+    /**
+     * Returns the index of the last range starting at or before {@code element}, or -1 if there is none.
+     */
+    private int indexOfRangeAtOrBefore(long element) {
+        int low = 0;
+        int high = mRangeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (mStarts[middle] > element) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return high;
+    }
+
+    private void insertRange(int index, long start, long end) {
+        if (mRangeCount == mStarts.length) {
+            long[] starts = new long[mRangeCount + mRangeCount / 2 + 1];
+            long[] ends = new long[starts.length];
+            System.arraycopy(mStarts, 0, starts, 0, mRangeCount);
+            System.arraycopy(mEnds, 0, ends, 0, mRangeCount);
+            mStarts = starts;
+            mEnds = ends;
+        }
+        System.arraycopy(mStarts, index, mStarts, index + 1, mRangeCount - index);
+        System.arraycopy(mEnds, index, mEnds, index + 1, mRangeCount - index);
+        mStarts[index] = start;
+        mEnds[index] = end;
+        mRangeCount++;
+    }
+
+    private void removeRange(int index) {
+        System.arraycopy(mStarts, index + 1, mStarts, index, mRangeCount - index - 1);
+        System.arraycopy(mEnds, index + 1, mEnds, index, mRangeCount - index - 1);
+        mRangeCount--;
+    }
+}
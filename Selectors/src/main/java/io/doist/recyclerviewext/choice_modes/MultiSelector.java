@@ -2,10 +2,6 @@ package io.doist.recyclerviewext.choice_modes;
 
 import android.widget.AbsListView;
 
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
-
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -18,28 +14,28 @@ import androidx.recyclerview.widget.RecyclerView;
  * {@link android.R.attr#state_activated} reflect the selected state.
  */
 public class MultiSelector extends Selector {
-    private final Set<Long> mSelectedIds = new LinkedHashSet<>();
+    private LongLinkedHashSet mSelectedIds = new LongLinkedHashSet();
+    // Whether mSelectedIds is shared with a snapshot, and must be copied before it's changed.
+    private boolean mSelectedIdsShared;
 
     public MultiSelector(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.Adapter adapter) {
         super(recyclerView, adapter);
     }
 
     public void setSelected(long id, boolean selected) {
-        boolean changed;
-        long[] previousSelectedIds = getSelectedIds();
+        if (mSelectedIds.contains(id) == selected) {
+            return;
+        }
+
+        long[] previousSelectedIds = snapshotSelectedIds();
         if (selected) {
-            changed = mSelectedIds.add(id);
+            getMutableSelectedIds().add(id);
         } else {
-            changed = mSelectedIds.remove(id);
+            getMutableSelectedIds().remove(id);
         }
 
-        if (changed) {
-            notifyItemChanged(id);
-
-            if (mObserver != null) {
-                mObserver.onSelectionChanged(getSelectedIds(), previousSelectedIds);
-            }
-        }
+        notifyItemChanged(id, selected);
+        notifySelectionChanged(previousSelectedIds);
     }
 
     public boolean isSelected(long id) {
@@ -48,12 +44,7 @@ public class MultiSelector extends Selector {
 
     @Override
     public long[] getSelectedIds() {
-        long[] selectedIds = new long[mSelectedIds.size()];
-        int i = 0;
-        for (Long selectedId : mSelectedIds) {
-            selectedIds[i++] = selectedId;
-        }
-        return selectedIds;
+        return mSelectedIds.toArray();
     }
 
     @Override
@@ -63,19 +54,40 @@ public class MultiSelector extends Selector {
 
     @Override
     public void clearSelected() {
-        long[] previousSelectedIds = getSelectedIds();
-        boolean hadSelections = getSelectedCount() > 0;
+        // Deselect all as a batch, so that positions are notified in ranges.
+        setSelected(getSelectedIds(), false);
+    }
 
-        Iterator<Long> it = mSelectedIds.iterator();
-        while (it.hasNext()) {
-            long selectedId = it.next();
-            it.remove();
+    @Override
+    protected void restoreSelectedIds(@NonNull long[] ids) {
+        long[] previousSelectedIds = snapshotSelectedIds();
+        boolean changed = false;
+        LongLinkedHashSet selectedIds = getMutableSelectedIds();
+        selectedIds.ensureCapacity(selectedIds.size() + ids.length);
+        for (long id : ids) {
+            if (selectedIds.add(id)) {
+                trackSelectionChange(id, true);
+                changed = true;
+            }
+        }
 
-            notifyItemChanged(selectedId);
+        if (changed) {
+            notifySelectionChanged(previousSelectedIds);
         }
+    }
+
+    @NonNull
+    @Override
+    SelectionSnapshot createSelectionSnapshot(long version) {
+        mSelectedIdsShared = true;
+        return new SelectionSnapshot(version, mSelectedIds);
+    }
 
-        if (hadSelections && mObserver != null) {
-            mObserver.onSelectionChanged(getSelectedIds(), previousSelectedIds);
+    private LongLinkedHashSet getMutableSelectedIds() {
+        if (mSelectedIdsShared) {
+            mSelectedIds = new LongLinkedHashSet(mSelectedIds);
+            mSelectedIdsShared = false;
         }
+        return mSelectedIds;
     }
 }
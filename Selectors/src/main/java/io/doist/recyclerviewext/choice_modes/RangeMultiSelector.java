@@ -0,0 +1,226 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import android.os.Bundle;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Tracks multiple selections like {@link MultiSelector}, but stores selected ids as ranges, so that selecting many
+ * contiguous ids takes constant space. Best suited for very large lists whose ids are mostly sequential.
+ *
+ * {@link #selectAll()} and {@link #clearSelected()} run in constant time, plus a single range notification. After
+ * {@link #selectAll()}, the selector tracks unselected ids instead, and all items currently in the adapter that are not
+ * unselected are considered selected. Only ids in the adapter are then tracked as unselected, and they're dropped once
+ * they leave it, so counts are answered from the ranges alone. {@link #invertSelection()} drops stored ids no longer
+ * in the adapter, in time linear in the number of stored ids or items, whichever is smaller.
+ */
+public class RangeMultiSelector extends Selector {
+    private static final String KEY_RANGE_SELECTOR_RANGES = ":range_selector_ranges";
+    private static final String KEY_RANGE_SELECTOR_INVERTED = ":range_selector_inverted";
+
+    // Selected ids or, when inverted, unselected ids.
+    private final LongRangeSet mIds = new LongRangeSet();
+    private boolean mInverted;
+
+    public RangeMultiSelector(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.Adapter adapter) {
+        super(recyclerView, adapter);
+    }
+
+    @Override
+    public void setSelected(long id, boolean selected) {
+        long[] previousSelectedIds = snapshotSelectedIds();
+        boolean changed;
+        if (selected != mInverted) {
+            // Ids not in the adapter are never selected when inverted, so they're not tracked as unselected.
+            changed = (!mInverted || getItemPosition(id) != RecyclerView.NO_POSITION) && mIds.add(id);
+        } else {
+            changed = mIds.remove(id);
+        }
+
+        if (changed) {
+            notifyItemChanged(id, selected);
+            notifySelectionChanged(previousSelectedIds);
+        }
+    }
+
+    @Override
+    public boolean isSelected(long id) {
+        if (mInverted) {
+            return !mIds.contains(id) && getItemPosition(id) != RecyclerView.NO_POSITION;
+        } else {
+            return mIds.contains(id);
+        }
+    }
+
+    @Override
+    public long[] getSelectedIds() {
+        if (mInverted) {
+            int itemCount = mAdapter.getItemCount();
+            long[] selectedIds = new long[itemCount];
+            int count = 0;
+            for (int i = 0; i < itemCount; i++) {
+                long id = mAdapter.getItemId(i);
+                if (!mIds.contains(id)) {
+                    selectedIds[count++] = id;
+                }
+            }
+            return count < itemCount ? Arrays.copyOf(selectedIds, count) : selectedIds;
+        } else {
+            return mIds.toArray();
+        }
+    }
+
+    @Override
+    public int getSelectedCount() {
+        if (mInverted) {
+            // Unselected ids are all in the adapter, except those removed but not yet dropped.
+            return (int) Math.max(mAdapter.getItemCount() - mIds.size(), 0);
+        } else {
+            return (int) mIds.size();
+        }
+    }
+
+    @Override
+    protected boolean isStored(long id) {
+        return mIds.contains(id);
+    }
+
+    @NonNull
+    @Override
+    protected long[] getStoredIds() {
+        return mIds.toArray();
+    }
+
+    @Override
+    protected void removeMissingIds(@NonNull long[] ids) {
+        if (mInverted) {
+            // Unselected ids no longer in the adapter don't affect the selection.
+            for (long id : ids) {
+                mIds.remove(id);
+            }
+        } else {
+            super.removeMissingIds(ids);
+        }
+    }
+
+    /**
+     * Returns whether the selector is tracking unselected ids, ie. after {@link #selectAll()}.
+     */
+    public boolean isInverted() {
+        return mInverted;
+    }
+
+    @Override
+    public void selectAll() {
+        if (mInverted && mIds.size() == 0) {
+            return;
+        }
+
+        long[] previousSelectedIds = snapshotSelectedIds();
+        if (isTrackingSelectionChanges()) {
+            for (int i = 0; i < mAdapter.getItemCount(); i++) {
+                long id = mAdapter.getItemId(i);
+                if (!isSelected(id)) {
+                    trackSelectionChange(id, true);
+                }
+            }
+        }
+        mInverted = true;
+        mIds.clear();
+        notifyAllItemsChanged();
+        notifySelectionChanged(previousSelectedIds);
+    }
+
+    @Override
+    public void clearSelected() {
+        if (!mInverted && mIds.size() == 0) {
+            return;
+        }
+
+        long[] previousSelectedIds = snapshotSelectedIds();
+        if (isTrackingSelectionChanges()) {
+            for (long id : getSelectedIds()) {
+                trackSelectionChange(id, false);
+            }
+        }
+        mInverted = false;
+        mIds.clear();
+        notifyAllItemsChanged();
+        notifySelectionChanged(previousSelectedIds);
+    }
+
+    @Override
+    public void invertSelection() {
+        long[] previousSelectedIds = snapshotSelectedIds();
+        if (isTrackingSelectionChanges()) {
+            for (int i = 0; i < mAdapter.getItemCount(); i++) {
+                long id = mAdapter.getItemId(i);
+                trackSelectionChange(id, !isSelected(id));
+            }
+        }
+        // Stored ids no longer in the adapter are neither selected nor unselected after inverting.
+        removeIdsNotInAdapter();
+        mInverted = !mInverted;
+        notifyAllItemsChanged();
+        notifySelectionChanged(previousSelectedIds);
+    }
+
+    private void removeIdsNotInAdapter() {
+        int itemCount = mAdapter.getItemCount();
+        if (mIds.size() <= itemCount) {
+            for (long id : mIds.toArray()) {
+                if (getItemPosition(id) == RecyclerView.NO_POSITION) {
+                    mIds.remove(id);
+                }
+            }
+        } else {
+            long[] ids = new long[itemCount];
+            int count = 0;
+            for (int i = 0; i < itemCount; i++) {
+                long id = mAdapter.getItemId(i);
+                if (mIds.contains(id)) {
+                    ids[count++] = id;
+                }
+            }
+            Arrays.sort(ids, 0, count);
+            mIds.clear();
+            for (int i = 0; i < count; i++) {
+                mIds.add(ids[i]);
+            }
+        }
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        outState.putByteArray(KEY_RANGE_SELECTOR_RANGES, IdRangeCodec.encodeRanges(mIds.getRanges()));
+        outState.putBoolean(KEY_RANGE_SELECTOR_INVERTED, mInverted);
+    }
+
+    @Override
+    public void onRestoreInstanceState(@Nullable Bundle savedInstanceState) {
+        if (savedInstanceState != null) {
+            byte[] encodedRanges = savedInstanceState.getByteArray(KEY_RANGE_SELECTOR_RANGES);
+            if (encodedRanges != null) {
+                long[] ranges = IdRangeCodec.decodeRanges(encodedRanges);
+                boolean inverted = savedInstanceState.getBoolean(KEY_RANGE_SELECTOR_INVERTED);
+                if (inverted == mInverted && Arrays.equals(ranges, mIds.getRanges())) {
+                    return;
+                }
+
+                long[] previousSelectedIds = snapshotSelectedIds();
+                mIds.setRanges(ranges);
+                mInverted = inverted;
+                if (isTrackingSelectionChanges()) {
+                    for (long id : getSelectedIds()) {
+                        trackSelectionChange(id, true);
+                    }
+                }
+                notifySelectionChanged(previousSelectedIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Read-only view of the ids added to and removed from a {@link Selector}'s selection in a single change.
+ *
+ * Instances are reused by the {@link Selector}, so they're only valid during
+ * {@link Selector.OnSelectionDeltaListener#onSelectionChanged(Selector, SelectionDelta)}.
+ */
+public final class SelectionDelta {
+    private long[] mAddedIds = new long[1];
+    private int mAddedCount;
+    private long[] mRemovedIds = new long[1];
+    private int mRemovedCount;
+
+    SelectionDelta() {
+    }
+
+    public int getAddedCount() {
+        return mAddedCount;
+    }
+
+    public long getAddedId(int index) {
+        if (index >= mAddedCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", count: " + mAddedCount);
+        }
+        return mAddedIds[index];
+    }
+
+    public int getRemovedCount() {
+        return mRemovedCount;
+    }
+
+    public long getRemovedId(int index) {
+        if (index >= mRemovedCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", count: " + mRemovedCount);
+        }
+        return mRemovedIds[index];
+    }
+
+    void set(@NonNull LongLinkedHashSet addedIds, @NonNull LongLinkedHashSet removedIds) {
+        mAddedIds = addedIds.toArray(mAddedIds);
+        mAddedCount = addedIds.size();
+        mRemovedIds = removedIds.toArray(mRemovedIds);
+        mRemovedCount = removedIds.size();
+    }
+}
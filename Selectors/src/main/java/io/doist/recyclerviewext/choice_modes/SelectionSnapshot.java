@@ -0,0 +1,83 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable copy of a {@link Selector}'s selection, which can be safely shared with and read from any thread.
+ *
+ * Snapshots are versioned: {@link #getVersion()} matches {@link Selector#getSelectionVersion()} until the selection
+ * changes, which can be used to detect that a snapshot is stale without copying or locking.
+ */
+public final class SelectionSnapshot {
+    private final long mVersion;
+    private final int mSize;
+    // Selected ids in selection order, and the same ids hashed for lookups. Only one is set on construction, possibly
+    // shared with the selector, and the other is built from it when first needed. Neither is modified once set.
+    private volatile long[] mIds;
+    private volatile LongLinkedHashSet mIdSet;
+
+    SelectionSnapshot(long version, @NonNull long[] ids) {
+        mVersion = version;
+        mSize = ids.length;
+        mIds = ids;
+    }
+
+    SelectionSnapshot(long version, @NonNull LongLinkedHashSet ids) {
+        mVersion = version;
+        mSize = ids.size();
+        mIdSet = ids;
+    }
+
+    public long getVersion() {
+        return mVersion;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Returns the selected id at {@code index}, in selection order.
+     */
+    public long getId(int index) {
+        return getIds()[index];
+    }
+
+    public boolean contains(long id) {
+        return getIdSet().contains(id);
+    }
+
+    /**
+     * Returns a copy of all selected ids, in selection order.
+     */
+    @NonNull
+    public long[] toArray() {
+        return getIds().clone();
+    }
+
+    private long[] getIds() {
+        // Racing threads build equal arrays, so either can be kept.
+        long[] ids = mIds;
+        if (ids == null) {
+            mIds = ids = mIdSet.toArray();
+        }
+        return ids;
+    }
+
+    private LongLinkedHashSet getIdSet() {
+        LongLinkedHashSet idSet = mIdSet;
+        if (idSet == null) {
+            long[] ids = mIds;
+            idSet = new LongLinkedHashSet(ids.length);
+            for (long id : ids) {
+                idSet.add(id);
+            }
+            mIdSet = idSet;
+        }
+        return idSet;
+    }
+}
@@ -5,8 +5,7 @@ import android.os.Bundle;
 import android.view.View;
 import android.widget.AbsListView;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 
 import androidx.annotation.NonNull;
@@ -19,20 +18,42 @@ import androidx.recyclerview.widget.RecyclerView;
 public abstract class Selector {
     public static final Object PAYLOAD_SELECT = new Object();
 
-    private static final String KEY_SELECTOR_SELECTED_IDS = ":selector_selected_ids";
+    private static final String KEY_SELECTOR_SELECTED_IDS = ":selector_selected_ids_encoded";
+    // Uncompressed ids, saved by previous versions.
+    private static final String KEY_SELECTOR_SELECTED_IDS_LEGACY = ":selector_selected_ids";
 
     protected final RecyclerView mRecyclerView;
     protected final RecyclerView.Adapter mAdapter;
 
+    // Positions of the adapter's item ids, tracked from the start and kept up to date by SelectorAdapterDataObserver.
+    private final ItemIdPositions mItemIdPositions;
+
     protected OnSelectionChangedListener mObserver;
+    private OnSelectionDeltaListener mDeltaObserver;
+
+    // Ids added to and removed from the selection since the last listener callback, tracked for mDeltaObserver.
+    private final LongLinkedHashSet mAddedIds = new LongLinkedHashSet();
+    private final LongLinkedHashSet mRemovedIds = new LongLinkedHashSet();
+    private final SelectionDelta mSelectionDelta = new SelectionDelta();
+
+    // Incremented on every selection change. Volatile so that snapshots can be checked for staleness on any thread.
+    private volatile long mSelectionVersion;
+    private SelectionSnapshot mSelectionSnapshot;
 
     // Used internally to disable item change notifications.
     // All selection changes lead to these notifications and it can be undesirable or inefficient.
     private boolean mNotifyItemChanges = true;
 
+    // Used internally to group multiple selection changes into a single listener callback and notify pass.
+    private int mBatchDepth = 0;
+    private long[] mBatchPreviousSelectedIds;
+    private boolean mBatchSelectionChanged;
+    private final LongLinkedHashSet mBatchChangedIds = new LongLinkedHashSet();
+
     protected Selector(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.Adapter adapter) {
         mRecyclerView = recyclerView;
         mAdapter = adapter;
+        mItemIdPositions = new ItemIdPositions(adapter);
         mAdapter.registerAdapterDataObserver(new SelectorAdapterDataObserver());
     }
 
@@ -42,6 +63,64 @@ public abstract class Selector {
         setSelected(id, !isSelected(id));
     }
 
+    /**
+     * Sets the selected state of all {@code ids}, with a single listener callback and notify pass.
+     */
+    public void setSelected(@NonNull long[] ids, boolean selected) {
+        startBatch();
+        for (long id : ids) {
+            setSelected(id, selected);
+        }
+        endBatch();
+    }
+
+    /**
+     * Selects all items in the adapter, with a single listener callback and notify pass.
+     */
+    public void selectAll() {
+        selectRange(0, mAdapter.getItemCount() - 1);
+    }
+
+    /**
+     * Selects all items between {@code fromPosition} and {@code toPosition}, inclusive, with a single listener callback
+     * and notify pass. The positions can be in any order.
+     */
+    public void selectRange(int fromPosition, int toPosition) {
+        int start = Math.max(Math.min(fromPosition, toPosition), 0);
+        int end = Math.min(Math.max(fromPosition, toPosition), mAdapter.getItemCount() - 1);
+        startBatch();
+        for (int i = start; i <= end; i++) {
+            setSelected(mAdapter.getItemId(i), true);
+        }
+        endBatch();
+    }
+
+    /**
+     * Inverts the selected state of all items in the adapter, with a single listener callback and notify pass.
+     */
+    public void invertSelection() {
+        int itemCount = mAdapter.getItemCount();
+        long[] ids = new long[itemCount];
+        boolean[] selected = new boolean[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            ids[i] = mAdapter.getItemId(i);
+            selected[i] = isSelected(ids[i]);
+        }
+
+        startBatch();
+        for (int i = 0; i < itemCount; i++) {
+            if (selected[i]) {
+                setSelected(ids[i], false);
+            }
+        }
+        for (int i = 0; i < itemCount; i++) {
+            if (!selected[i]) {
+                setSelected(ids[i], true);
+            }
+        }
+        endBatch();
+    }
+
     public abstract boolean isSelected(long id);
 
     public abstract long[] getSelectedIds();
@@ -50,10 +129,50 @@ public abstract class Selector {
 
     public abstract void clearSelected();
 
+    /**
+     * Returns an immutable snapshot of the selection, to be read from any thread. A new snapshot is only created when
+     * the selection changed since the last one was taken, and it shares the selector's storage when possible.
+     */
+    @NonNull
+    public SelectionSnapshot getSelectionSnapshot() {
+        SelectionSnapshot snapshot = mSelectionSnapshot;
+        if (snapshot == null || snapshot.getVersion() != mSelectionVersion) {
+            snapshot = mSelectionSnapshot = createSelectionSnapshot(mSelectionVersion);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Creates a snapshot of the current selection. Subclasses can override this to share their storage with the
+     * snapshot, copying it before their next change.
+     */
+    @NonNull
+    SelectionSnapshot createSelectionSnapshot(long version) {
+        return new SelectionSnapshot(version, getSelectedIds());
+    }
+
+    /**
+     * Returns the current selection version, which changes whenever the selection does. Safe to call from any thread,
+     * eg. to check if a {@link SelectionSnapshot} is stale.
+     */
+    public long getSelectionVersion() {
+        return mSelectionVersion;
+    }
+
     public void setOnSelectionChangedListener(@Nullable OnSelectionChangedListener observer) {
         mObserver = observer;
     }
 
+    /**
+     * Sets a listener that receives only the ids added to and removed from the selection on each change, which
+     * avoids copying all selected ids like {@link OnSelectionChangedListener} does.
+     */
+    public void setOnSelectionDeltaListener(@Nullable OnSelectionDeltaListener observer) {
+        mDeltaObserver = observer;
+        mAddedIds.clear();
+        mRemovedIds.clear();
+    }
+
     /**
      * Binds the {@code holder} according to its selected state using {@link View#setActivated(boolean)}.
      *
@@ -76,25 +195,170 @@ public abstract class Selector {
         return isSelected;
     }
 
+    /**
+     * Binds the {@code holder} if all {@code payloads} are {@link #PAYLOAD_SELECT}, ie. only the selected state
+     * changed. Call it first in {@link RecyclerView.Adapter#onBindViewHolder(RecyclerView.ViewHolder, int, List)}
+     * and skip the rest of the bind when it returns {@code true}.
+     *
+     * @return whether the {@code holder} was bound.
+     */
+    public boolean bindSelectionOnly(@NonNull RecyclerView.ViewHolder holder, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) != PAYLOAD_SELECT) {
+                return false;
+            }
+        }
+        bind(holder, false);
+        return true;
+    }
+
     public void onSaveInstanceState(@NonNull Bundle outState) {
-        outState.putLongArray(KEY_SELECTOR_SELECTED_IDS, getSelectedIds());
+        // Encode ids compactly, as huge selections can exceed the transaction size limit otherwise.
+        outState.putByteArray(KEY_SELECTOR_SELECTED_IDS, IdRangeCodec.encode(getSelectedIds()));
     }
 
     public void onRestoreInstanceState(@Nullable Bundle savedInstanceState) {
         if (savedInstanceState != null) {
-            long[] selectedIds = savedInstanceState.getLongArray(KEY_SELECTOR_SELECTED_IDS);
-            if (selectedIds != null) {
-                mNotifyItemChanges = false;
-                for (long selectedId : selectedIds) {
-                    setSelected(selectedId, true);
+            byte[] encodedSelectedIds = savedInstanceState.getByteArray(KEY_SELECTOR_SELECTED_IDS);
+            if (encodedSelectedIds != null) {
+                restoreSelectedIds(IdRangeCodec.decode(encodedSelectedIds));
+            } else {
+                long[] selectedIds = savedInstanceState.getLongArray(KEY_SELECTOR_SELECTED_IDS_LEGACY);
+                if (selectedIds != null) {
+                    restoreSelectedIds(selectedIds);
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects all restored {@code ids} without notifying item changes, with a single listener callback. Subclasses can
+     * override this to add them in bulk.
+     */
+    protected void restoreSelectedIds(@NonNull long[] ids) {
+        mNotifyItemChanges = false;
+        setSelected(ids, true);
+        mNotifyItemChanges = true;
+    }
+
+    /**
+     * Returns the currently selected ids, to be passed to {@link #notifySelectionChanged(long[])} after changing the
+     * selection, or {@code null} if they're not needed.
+     */
+    @Nullable
+    protected long[] snapshotSelectedIds() {
+        return mObserver != null && mBatchDepth == 0 ? getSelectedIds() : null;
+    }
+
+    /**
+     * Notifies the listener that the selection changed, unless changes are being batched.
+     *
+     * @param previousSelectedIds Ids obtained from {@link #snapshotSelectedIds()} before changing the selection.
+     */
+    protected void notifySelectionChanged(@Nullable long[] previousSelectedIds) {
+        mSelectionVersion++;
+
+        if (mBatchDepth > 0) {
+            mBatchSelectionChanged = true;
+            return;
+        }
+
+        if (mDeltaObserver != null) {
+            // Clear before dispatching, in case the listener changes the selection.
+            mSelectionDelta.set(mAddedIds, mRemovedIds);
+            mAddedIds.clear();
+            mRemovedIds.clear();
+            mDeltaObserver.onSelectionChanged(this, mSelectionDelta);
+        }
+
+        if (mObserver != null) {
+            mObserver.onSelectionChanged(getSelectedIds(), previousSelectedIds);
+        }
+    }
+
+    /**
+     * Tracks that {@code id} was selected or unselected and calls {@link #notifyItemChanged(long)}.
+     */
+    protected void notifyItemChanged(long id, boolean selected) {
+        trackSelectionChange(id, selected);
+        notifyItemChanged(id);
+    }
+
+    /**
+     * Returns whether selection changes need to be passed to {@link #trackSelectionChange(long, boolean)}.
+     */
+    protected boolean isTrackingSelectionChanges() {
+        return mDeltaObserver != null;
+    }
+
+    /**
+     * Tracks that {@code id} was selected or unselected, to be reported to the {@link OnSelectionDeltaListener}.
+     */
+    protected void trackSelectionChange(long id, boolean selected) {
+        if (mDeltaObserver != null) {
+            if (selected) {
+                if (!mRemovedIds.remove(id)) {
+                    mAddedIds.add(id);
+                }
+            } else {
+                if (!mAddedIds.remove(id)) {
+                    mRemovedIds.add(id);
                 }
-                mNotifyItemChanges = true;
             }
         }
     }
 
+    /**
+     * Notifies all items in the adapter with {@link #PAYLOAD_SELECT}, for changes that affect too many items to
+     * notify them individually.
+     */
+    protected void notifyAllItemsChanged() {
+        if (mNotifyItemChanges && mAdapter.getItemCount() > 0) {
+            mAdapter.notifyItemRangeChanged(0, mAdapter.getItemCount(), PAYLOAD_SELECT);
+        }
+    }
+
+    /**
+     * Returns the adapter position of {@code id}, or {@link RecyclerView#NO_POSITION} if it's not in the adapter.
+     */
+    protected int getItemPosition(long id) {
+        return mItemIdPositions.getPosition(id);
+    }
+
+    /**
+     * Returns whether {@code id} is stored by the selector, and so must be removed once it's no longer in the adapter.
+     * Defaults to whether it's selected.
+     */
+    protected boolean isStored(long id) {
+        return isSelected(id);
+    }
+
+    /**
+     * Returns all ids stored by the selector, to be checked when it's unknown which ids left the adapter. Defaults to
+     * the selected ids.
+     */
+    @NonNull
+    protected long[] getStoredIds() {
+        return getSelectedIds();
+    }
+
+    /**
+     * Removes stored {@code ids} that are no longer in the adapter. Defaults to unselecting them, without notifying
+     * item changes.
+     */
+    protected void removeMissingIds(@NonNull long[] ids) {
+        mNotifyItemChanges = false;
+        setSelected(ids, false);
+        mNotifyItemChanges = true;
+    }
+
     protected void notifyItemChanged(long id) {
-        if (mNotifyItemChanges) {
+        if (mNotifyItemChanges && mBatchDepth > 0) {
+            mBatchChangedIds.add(id);
+        } else if (mNotifyItemChanges) {
             int position = RecyclerView.NO_POSITION;
 
             // Look up the item position using findViewHolderForItemId().
@@ -105,15 +369,10 @@ public abstract class Selector {
             }
 
             // RecyclerView can cache views offscreen that are not found by findViewHolderForItemId() et al,
-            // but will be reattached without being rebound, so the adapter items must be iterated.
-            // This is slower but prevents inconsistencies at the edges of the RecyclerView.
+            // but will be reattached without being rebound, so the position must be looked up in the adapter.
+            // This prevents inconsistencies at the edges of the RecyclerView.
             if (position == RecyclerView.NO_POSITION) {
-                for (int i = 0; i < mAdapter.getItemCount(); i++) {
-                    if (mAdapter.getItemId(i) == id) {
-                        position = i;
-                        break;
-                    }
-                }
+                position = mItemIdPositions.getPosition(id);
             }
 
             if (position != RecyclerView.NO_POSITION) {
@@ -122,8 +381,74 @@ public abstract class Selector {
         }
     }
 
+    /**
+     * Starts grouping selection changes until the matching {@link #endBatch()}, which notifies them all at once.
+     */
+    void startBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatchPreviousSelectedIds = mObserver != null ? getSelectedIds() : null;
+            mBatchSelectionChanged = false;
+        }
+    }
+
+    void endBatch() {
+        if (--mBatchDepth == 0) {
+            if (mBatchChangedIds.size() == 1) {
+                notifyItemChanged(mBatchChangedIds.toArray()[0]);
+            } else if (mBatchChangedIds.size() > 1) {
+                notifyItemRangesChanged(mBatchChangedIds);
+            }
+            mBatchChangedIds.clear();
+
+            long[] previousSelectedIds = mBatchPreviousSelectedIds;
+            mBatchPreviousSelectedIds = null;
+            if (mBatchSelectionChanged) {
+                mBatchSelectionChanged = false;
+                // Previous ids are only snapshotted if there was a listener when the batch started.
+                notifySelectionChanged(previousSelectedIds);
+            }
+        }
+    }
+
+    /**
+     * Notifies the positions of all {@code ids}, grouping contiguous positions.
+     */
+    private void notifyItemRangesChanged(LongLinkedHashSet ids) {
+        long[] changedIds = ids.toArray();
+        int[] positions = new int[changedIds.length];
+        int count = 0;
+        for (long id : changedIds) {
+            int position = mItemIdPositions.getPosition(id);
+            if (position != RecyclerView.NO_POSITION) {
+                positions[count++] = position;
+            }
+        }
+        Arrays.sort(positions, 0, count);
+
+        int positionStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || positions[i] != positions[i - 1] + 1) {
+                mAdapter.notifyItemRangeChanged(
+                        positions[positionStart], positions[i - 1] - positions[positionStart] + 1, PAYLOAD_SELECT);
+                positionStart = i;
+            }
+        }
+    }
+
     public interface OnSelectionChangedListener {
-        void onSelectionChanged(long[] selectedIds, long[] previousSelectedIds);
+        /**
+         * @param previousSelectedIds Ids selected before the change, or {@code null} if the listener was set while
+         *                            the change was ongoing.
+         */
+        void onSelectionChanged(long[] selectedIds, @Nullable long[] previousSelectedIds);
+    }
+
+    public interface OnSelectionDeltaListener {
+        /**
+         * Called when the selection changes, with the ids added and removed. {@code delta} is reused, so it must not
+         * be kept after this method returns.
+         */
+        void onSelectionChanged(@NonNull Selector selector, @NonNull SelectionDelta delta);
     }
 
     private class SelectorAdapterDataObserver extends RecyclerView.AdapterDataObserver {
@@ -131,43 +456,81 @@ public abstract class Selector {
 
         @Override
         public void onChanged() {
+            mItemIdPositions.onChanged();
+
+            // There's no hint at what changed, so check all selected ids.
+            mDeselectMissingIdsRunnable.mCheckAll = true;
             mDeselectMissingIdsRunnable.run();
         }
 
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            // Selection changes, notified by the selector itself, never replace ids.
+            if (payload != PAYLOAD_SELECT) {
+                mItemIdPositions.onItemRangeChanged(positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mItemIdPositions.onItemRangeInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            mItemIdPositions.onItemRangeMoved(fromPosition, toPosition, itemCount);
+        }
+
         @Override
         public void onItemRangeRemoved(int positionStart, int itemCount) {
+            // Collect selected ids in the removed range while they're still known. If the ids aren't loaded, or the
+            // range doesn't match them, eg. if the removal was already applied, all selected ids need to be checked.
+            boolean check;
+            if (mItemIdPositions.hasItemIds() && positionStart + itemCount <= mItemIdPositions.getItemCount()) {
+                LongLinkedHashSet candidateIds = mDeselectMissingIdsRunnable.mCandidateIds;
+                for (int i = positionStart; i < positionStart + itemCount; i++) {
+                    long id = mItemIdPositions.getItemId(i);
+                    if (isStored(id)) {
+                        candidateIds.add(id);
+                    }
+                }
+                check = !candidateIds.isEmpty();
+            } else {
+                mDeselectMissingIdsRunnable.mCheckAll = true;
+                check = true;
+            }
+
+            mItemIdPositions.onItemRangeRemoved(positionStart, itemCount);
+
             // Deselect missing ids after all changes go through.
-            mRecyclerView.removeCallbacks(mDeselectMissingIdsRunnable);
-            mRecyclerView.post(mDeselectMissingIdsRunnable);
+            if (check) {
+                mRecyclerView.removeCallbacks(mDeselectMissingIdsRunnable);
+                mRecyclerView.post(mDeselectMissingIdsRunnable);
+            }
         }
 
         private class DeselectMissingIdsRunnable implements Runnable {
+            // Selected ids that might be missing, or whether all selected ids might be.
+            private final LongLinkedHashSet mCandidateIds = new LongLinkedHashSet();
+            private boolean mCheckAll;
+
             @Override
             public void run() {
-                int selectedCount = getSelectedCount();
-                if (selectedCount > 0) {
-                    // Build list of all selected ids that are still present.
-                    List<Long> selectedIds = new ArrayList<>(selectedCount);
-                    for (int i = 0; i < mAdapter.getItemCount(); i++) {
-                        long id = mAdapter.getItemId(i);
-                        if (isSelected(id)) {
-                            selectedIds.add(id);
-                        }
+                long[] candidateIds = mCheckAll ? getStoredIds() : mCandidateIds.toArray();
+                mCandidateIds.clear();
+                mCheckAll = false;
+
+                // Find candidates that are still stored but no longer present.
+                long[] missingIds = new long[candidateIds.length];
+                int missingCount = 0;
+                for (long id : candidateIds) {
+                    if (isStored(id) && mItemIdPositions.getPosition(id) == RecyclerView.NO_POSITION) {
+                        missingIds[missingCount++] = id;
                     }
+                }
 
-                    // Build set of missing ids.
-                    HashSet<Long> missingIds = new HashSet<>(selectedCount);
-                    for (long previouslySelectedId : getSelectedIds()) {
-                        missingIds.add(previouslySelectedId);
-                    }
-                    missingIds.removeAll(selectedIds);
-
-                    // Unselect all missing ids.
-                    mNotifyItemChanges = false;
-                    for (Long missingId : missingIds) {
-                        setSelected(missingId, false);
-                    }
-                    mNotifyItemChanges = true;
+                if (missingCount > 0) {
+                    removeMissingIds(Arrays.copyOf(missingIds, missingCount));
                 }
             }
         }
@@ -22,7 +22,7 @@ public class SingleSelector extends Selector {
     }
 
     public void setSelected(long id, boolean selected) {
-        long[] previousSelectedIds = getSelectedIds();
+        long[] previousSelectedIds = snapshotSelectedIds();
         boolean oldSelected = mSelected;
         long oldSelectedId = mSelectedId;
 
@@ -33,18 +33,59 @@ public class SingleSelector extends Selector {
 
         if (mSelected != oldSelected || oldSelectedId != mSelectedId) {
             if (oldSelected) {
-                notifyItemChanged(oldSelectedId);
+                notifyItemChanged(oldSelectedId, false);
             }
             if (mSelected) {
-                notifyItemChanged(mSelectedId);
+                notifyItemChanged(mSelectedId, true);
             }
 
-            if (mObserver != null) {
-                mObserver.onSelectionChanged(getSelectedIds(), previousSelectedIds);
+            notifySelectionChanged(previousSelectedIds);
+        }
+    }
+
+    /**
+     * Selects the last of {@code ids}, if any, or deselects the selected item if it's one of {@code ids}.
+     */
+    @Override
+    public void setSelected(@NonNull long[] ids, boolean selected) {
+        if (selected) {
+            if (ids.length > 0) {
+                setSelected(ids[ids.length - 1], true);
+            }
+        } else if (mSelected) {
+            for (long id : ids) {
+                if (id == mSelectedId) {
+                    setSelected(id, false);
+                    break;
+                }
             }
         }
     }
 
+    /**
+     * Unsupported, as only one item can be selected.
+     */
+    @Override
+    public void selectAll() {
+        throw new UnsupportedOperationException("SingleSelector can't select all items");
+    }
+
+    /**
+     * Unsupported, as only one item can be selected.
+     */
+    @Override
+    public void selectRange(int fromPosition, int toPosition) {
+        throw new UnsupportedOperationException("SingleSelector can't select a range of items");
+    }
+
+    /**
+     * Unsupported, as only one item can be selected.
+     */
+    @Override
+    public void invertSelection() {
+        throw new UnsupportedOperationException("SingleSelector can't invert the selection");
+    }
+
     public boolean isSelected(long id) {
         return mSelected && mSelectedId == id;
     }
@@ -61,17 +102,15 @@ public class SingleSelector extends Selector {
 
     @Override
     public void clearSelected() {
-        long[] previousSelectedIds = getSelectedIds();
+        long[] previousSelectedIds = snapshotSelectedIds();
         boolean hadSelection = mSelected;
 
         mSelected = false;
 
         if (hadSelection) {
-            notifyItemChanged(mSelectedId);
+            notifyItemChanged(mSelectedId, false);
 
-            if (mObserver != null) {
-                mObserver.onSelectionChanged(getSelectedIds(), previousSelectedIds);
-            }
+            notifySelectionChanged(previousSelectedIds);
         }
     }
 }
@@ -0,0 +1,65 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdRangeCodecTest {
+    @Test
+    public void decode_keepsTheOrder() {
+        long[] ids = {9, 10, 11, 3, 4, -2, 7, 7};
+
+        assertArrayEquals(ids, IdRangeCodec.decode(IdRangeCodec.encode(ids)));
+    }
+
+    @Test
+    public void decode_handlesExtremeIds() {
+        long[] ids = {Long.MAX_VALUE, Long.MIN_VALUE, 0, Long.MAX_VALUE - 1, Long.MAX_VALUE, -1};
+
+        assertArrayEquals(ids, IdRangeCodec.decode(IdRangeCodec.encode(ids)));
+    }
+
+    @Test
+    public void decode_handlesNoIds() {
+        assertEquals(0, IdRangeCodec.encode(new long[0]).length);
+        assertArrayEquals(new long[0], IdRangeCodec.decode(new byte[0]));
+    }
+
+    @Test
+    public void encode_compressesContiguousIds() {
+        long[] ids = new long[10000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1000 + i;
+        }
+
+        byte[] encoded = IdRangeCodec.encode(ids);
+
+        assertTrue(encoded.length <= 4);
+        assertArrayEquals(new long[]{1000, 10999}, IdRangeCodec.decodeRanges(encoded));
+    }
+
+    @Test
+    public void decodeRanges_restoresEncodeRanges() {
+        long[] ranges = {-10, -5, 0, 0, 3, 100, Long.MAX_VALUE - 2, Long.MAX_VALUE};
+
+        assertArrayEquals(ranges, IdRangeCodec.decodeRanges(IdRangeCodec.encodeRanges(ranges)));
+    }
+
+    @Test
+    public void decode_restoresRandomIds() {
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            long[] ids = new long[random.nextInt(50)];
+            long base = random.nextBoolean() ? random.nextLong() : 0;
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = random.nextInt(10) == 0 ? random.nextLong() : base + random.nextInt(40);
+            }
+
+            assertArrayEquals(ids, IdRangeCodec.decode(IdRangeCodec.encode(ids)));
+        }
+    }
+}
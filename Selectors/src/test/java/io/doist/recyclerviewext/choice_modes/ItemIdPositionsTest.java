@@ -0,0 +1,124 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Random;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ItemIdPositionsTest {
+    private TestAdapter mAdapter;
+    private ItemIdPositions mPositions;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter(10);
+        mPositions = new ItemIdPositions(mAdapter);
+    }
+
+    @Test
+    public void getPosition_findsIdsInTheAdapter() {
+        assertEquals(3, mPositions.getPosition(3));
+        assertEquals(RecyclerView.NO_POSITION, mPositions.getPosition(10));
+        assertTrue(mPositions.hasItemIds());
+    }
+
+    @Test
+    public void getItemCount_followsChangesWithoutLoadingIds() {
+        mAdapter.ids.add(10L);
+        mPositions.onItemRangeInserted(10, 1);
+        mAdapter.ids.remove(0);
+        mAdapter.ids.remove(0);
+        mPositions.onItemRangeRemoved(0, 2);
+
+        assertFalse(mPositions.hasItemIds());
+        assertEquals(9, mPositions.getItemCount());
+        assertEquals(RecyclerView.NO_POSITION, mPositions.getPosition(1));
+        assertEquals(8, mPositions.getPosition(10));
+    }
+
+    @Test
+    public void onItemRangeChanged_followsReplacedIds() {
+        mPositions.getPosition(0);
+
+        mAdapter.ids.set(4, 40L);
+        mPositions.onItemRangeChanged(4, 1);
+
+        assertEquals(RecyclerView.NO_POSITION, mPositions.getPosition(4));
+        assertEquals(4, mPositions.getPosition(40));
+        assertEquals(40, mPositions.getItemId(4));
+    }
+
+    @Test
+    public void onItemRangeMoved_movesIds() {
+        mPositions.getPosition(0);
+
+        mAdapter.ids.add(7, mAdapter.ids.remove(2));
+        mPositions.onItemRangeMoved(2, 7, 1);
+
+        assertEquals(7, mPositions.getPosition(2));
+        assertEquals(2, mPositions.getPosition(3));
+        assertEquals(6, mPositions.getPosition(7));
+    }
+
+    @Test
+    public void onChanged_reloadsIds() {
+        mPositions.getPosition(0);
+
+        mAdapter.ids.clear();
+        mAdapter.ids.add(5L);
+        mPositions.onChanged();
+
+        assertEquals(1, mPositions.getItemCount());
+        assertEquals(RecyclerView.NO_POSITION, mPositions.getPosition(0));
+        assertEquals(0, mPositions.getPosition(5));
+    }
+
+    @Test
+    public void randomChanges_matchTheAdapter() {
+        Random random = new Random(0);
+        long nextId = mAdapter.getItemCount();
+        for (int i = 0; i < 2000; i++) {
+            int itemCount = mAdapter.getItemCount();
+            int operation = random.nextInt(4);
+            if (operation == 0 || itemCount == 0) {
+                int position = random.nextInt(itemCount + 1);
+                int count = 1 + random.nextInt(3);
+                for (int j = 0; j < count; j++) {
+                    mAdapter.ids.add(position + j, nextId++);
+                }
+                mPositions.onItemRangeInserted(position, count);
+            } else if (operation == 1) {
+                int position = random.nextInt(itemCount);
+                int count = 1 + random.nextInt(Math.min(3, itemCount - position));
+                for (int j = 0; j < count; j++) {
+                    mAdapter.ids.remove(position);
+                }
+                mPositions.onItemRangeRemoved(position, count);
+            } else if (operation == 2) {
+                int from = random.nextInt(itemCount);
+                int to = random.nextInt(itemCount);
+                mAdapter.ids.add(to, mAdapter.ids.remove(from));
+                mPositions.onItemRangeMoved(from, to, 1);
+            } else {
+                int position = random.nextInt(itemCount);
+                mAdapter.ids.set(position, nextId++);
+                mPositions.onItemRangeChanged(position, 1);
+            }
+
+            assertEquals(mAdapter.getItemCount(), mPositions.getItemCount());
+            if (random.nextInt(4) == 0) {
+                long id = random.nextInt((int) nextId);
+                assertEquals(mAdapter.ids.indexOf(id), mPositions.getPosition(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongLinkedHashSetTest {
+    @Test
+    public void add_keepsInsertionOrder() {
+        LongLinkedHashSet set = new LongLinkedHashSet();
+
+        assertTrue(set.add(5));
+        assertTrue(set.add(-1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(5));
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new long[]{5, -1, 3}, set.toArray());
+    }
+
+    @Test
+    public void remove_keepsTheOrderOfTheOthers() {
+        LongLinkedHashSet set = new LongLinkedHashSet();
+        for (long element = 0; element < 5; element++) {
+            set.add(element);
+        }
+
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+        set.add(1);
+
+        assertFalse(set.contains(3));
+        assertArrayEquals(new long[]{0, 2, 4, 1}, set.toArray());
+    }
+
+    @Test
+    public void clear_removesAllElements() {
+        LongLinkedHashSet set = new LongLinkedHashSet();
+        for (long element = 0; element < 100; element++) {
+            set.add(element * 31);
+        }
+        set.remove(31);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        for (long element = 0; element < 100; element++) {
+            assertFalse(set.contains(element * 31));
+        }
+        set.add(62);
+        assertArrayEquals(new long[]{62}, set.toArray());
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        LongLinkedHashSet set = new LongLinkedHashSet();
+        set.add(1);
+        set.add(2);
+
+        LongLinkedHashSet copy = new LongLinkedHashSet(set);
+        copy.remove(1);
+        copy.add(3);
+
+        assertArrayEquals(new long[]{1, 2}, set.toArray());
+        assertArrayEquals(new long[]{2, 3}, copy.toArray());
+    }
+
+    @Test
+    public void toArray_reusesLargeEnoughArrays() {
+        LongLinkedHashSet set = new LongLinkedHashSet();
+        set.add(7);
+        long[] array = new long[2];
+
+        assertTrue(set.toArray(array) == array);
+        assertEquals(7, array[0]);
+    }
+
+    @Test
+    public void randomOperations_matchLinkedHashSet() {
+        Random random = new Random(0);
+        LongLinkedHashSet set = new LongLinkedHashSet();
+        Set<Long> expected = new LinkedHashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            long element = random.nextInt(200);
+            int operation = random.nextInt(100);
+            if (operation < 55) {
+                assertEquals(expected.add(element), set.add(element));
+            } else if (operation < 99) {
+                assertEquals(expected.remove(element), set.remove(element));
+            } else {
+                expected.clear();
+                set.clear();
+            }
+            assertEquals(expected.contains(element), set.contains(element));
+            assertEquals(expected.size(), set.size());
+        }
+        assertArrayEquals(toArray(expected), set.toArray());
+    }
+
+    private static long[] toArray(Set<Long> set) {
+        List<Long> list = new ArrayList<>(set);
+        long[] array = new long[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,94 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongRangeSetTest {
+    @Test
+    public void add_mergesAdjacentElements() {
+        LongRangeSet set = new LongRangeSet();
+
+        set.add(1);
+        set.add(3);
+        set.add(5);
+        assertEquals(3, set.getRangeCount());
+
+        set.add(2);
+        set.add(4);
+        assertFalse(set.add(4));
+
+        assertEquals(1, set.getRangeCount());
+        assertEquals(5, set.size());
+        assertArrayEquals(new long[]{1, 5}, set.getRanges());
+    }
+
+    @Test
+    public void remove_splitsRanges() {
+        LongRangeSet set = new LongRangeSet();
+        for (long element = 0; element < 10; element++) {
+            set.add(element);
+        }
+
+        assertTrue(set.remove(0));
+        assertTrue(set.remove(9));
+        assertTrue(set.remove(5));
+        assertFalse(set.remove(5));
+
+        assertEquals(7, set.size());
+        assertFalse(set.contains(5));
+        assertArrayEquals(new long[]{1, 4, 6, 8}, set.getRanges());
+        assertArrayEquals(new long[]{1, 2, 3, 4, 6, 7, 8}, set.toArray());
+    }
+
+    @Test
+    public void toArray_handlesTheLargestElement() {
+        LongRangeSet set = new LongRangeSet();
+        set.add(Long.MAX_VALUE);
+        set.add(Long.MAX_VALUE - 1);
+
+        assertArrayEquals(new long[]{Long.MAX_VALUE - 1, Long.MAX_VALUE}, set.toArray());
+    }
+
+    @Test
+    public void setRanges_restoresGetRanges() {
+        LongRangeSet set = new LongRangeSet();
+        set.setRanges(new long[]{-5, -3, 10, 10, 20, 29});
+
+        assertEquals(14, set.size());
+        assertEquals(3, set.getRangeCount());
+        assertTrue(set.contains(-4));
+        assertFalse(set.contains(11));
+        assertArrayEquals(new long[]{-5, -3, 10, 10, 20, 29}, set.getRanges());
+    }
+
+    @Test
+    public void randomOperations_matchTreeSet() {
+        Random random = new Random(0);
+        LongRangeSet set = new LongRangeSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            long element = random.nextInt(100);
+            if (random.nextInt(100) < 60) {
+                assertEquals(expected.add(element), set.add(element));
+            } else {
+                assertEquals(expected.remove(element), set.remove(element));
+            }
+            assertEquals(expected.contains(element), set.contains(element));
+            assertEquals(expected.size(), set.size());
+        }
+
+        long[] elements = set.toArray();
+        assertEquals(expected.size(), elements.length);
+        int i = 0;
+        for (long element : expected) {
+            assertEquals(element, elements[i++]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class MultiSelectorTest {
+    private TestAdapter mAdapter;
+    private MultiSelector mSelector;
+    private SelectionListener mListener;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter(10);
+        mSelector = new MultiSelector(new RecyclerView(RuntimeEnvironment.application), mAdapter);
+        mListener = new SelectionListener();
+        mSelector.setOnSelectionChangedListener(mListener);
+    }
+
+    @Test
+    public void setSelected_changesOnlyTheListedIds() {
+        mSelector.setSelected(new long[]{1, 2, 3}, true);
+        mSelector.setSelected(new long[]{2, 7}, false);
+
+        assertArrayEquals(new long[]{1, 3}, mSelector.getSelectedIds());
+        assertEquals(4, mAdapter.changedItemCount);
+        assertEquals(2, mListener.callCount);
+        assertArrayEquals(new long[]{1, 2, 3}, mListener.previousSelectedIds);
+    }
+
+    @Test
+    public void selectRange_selectsInclusiveRangeInAnyOrder() {
+        mSelector.selectRange(6, 3);
+
+        assertArrayEquals(new long[]{3, 4, 5, 6}, mSelector.getSelectedIds());
+        assertEquals(4, mAdapter.changedItemCount);
+        assertEquals(1, mListener.callCount);
+    }
+
+    @Test
+    public void selectRange_clampsToTheAdapter() {
+        mSelector.selectRange(-5, 1);
+        mSelector.selectRange(8, 20);
+
+        assertArrayEquals(new long[]{0, 1, 8, 9}, mSelector.getSelectedIds());
+    }
+
+    @Test
+    public void selectAll_selectsEveryItem() {
+        mSelector.setSelected(4, true);
+
+        mSelector.selectAll();
+
+        assertEquals(10, mSelector.getSelectedCount());
+        assertEquals(1 + 9, mAdapter.changedItemCount);
+        assertEquals(2, mListener.callCount);
+        assertArrayEquals(new long[]{4}, mListener.previousSelectedIds);
+    }
+
+    @Test
+    public void invertSelection_swapsSelectedAndUnselectedItems() {
+        mSelector.setSelected(new long[]{0, 2, 4, 6, 8}, true);
+        mListener.callCount = 0;
+
+        mSelector.invertSelection();
+
+        assertArrayEquals(new long[]{1, 3, 5, 7, 9}, mSelector.getSelectedIds());
+        assertEquals(1, mListener.callCount);
+        assertArrayEquals(new long[]{0, 2, 4, 6, 8}, mListener.previousSelectedIds);
+    }
+
+    @Test
+    public void onRestoreInstanceState_keepsTheSelectionOrder() {
+        mSelector.setSelected(new long[]{7, 2, 3, 4, 0}, true);
+        Bundle state = new Bundle();
+        mSelector.onSaveInstanceState(state);
+
+        MultiSelector selector = new MultiSelector(new RecyclerView(RuntimeEnvironment.application), mAdapter);
+        selector.onRestoreInstanceState(state);
+
+        assertArrayEquals(new long[]{7, 2, 3, 4, 0}, selector.getSelectedIds());
+    }
+
+    @Test
+    public void onRestoreInstanceState_restoresUncompressedIds() {
+        Bundle state = new Bundle();
+        state.putLongArray(":selector_selected_ids", new long[]{5, 1});
+
+        mSelector.onRestoreInstanceState(state);
+
+        assertArrayEquals(new long[]{5, 1}, mSelector.getSelectedIds());
+        assertEquals(1, mListener.callCount);
+    }
+}
@@ -0,0 +1,118 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class RangeMultiSelectorTest {
+    private TestAdapter mAdapter;
+    private RangeMultiSelector mSelector;
+    private SelectionListener mListener;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter(10);
+        mSelector = new RangeMultiSelector(new RecyclerView(RuntimeEnvironment.application), mAdapter);
+        mListener = new SelectionListener();
+        mSelector.setOnSelectionChangedListener(mListener);
+    }
+
+    @Test
+    public void selectAll_selectsOnlyIdsInTheAdapter() {
+        mSelector.selectAll();
+
+        assertTrue(mSelector.isInverted());
+        assertTrue(mSelector.isSelected(9));
+        assertFalse(mSelector.isSelected(10));
+        assertEquals(10, mSelector.getSelectedCount());
+    }
+
+    @Test
+    public void setSelected_ignoresUnselectingIdsNotInTheAdapterWhenInverted() {
+        mSelector.selectAll();
+        mListener.callCount = 0;
+
+        mSelector.setSelected(42, false);
+
+        assertEquals(10, mSelector.getSelectedCount());
+        assertEquals(0, mListener.callCount);
+    }
+
+    @Test
+    public void setSelected_unselectsIdsInTheAdapterWhenInverted() {
+        mSelector.selectAll();
+
+        mSelector.setSelected(new long[]{2, 3}, false);
+
+        assertFalse(mSelector.isSelected(2));
+        assertEquals(8, mSelector.getSelectedCount());
+        assertArrayEquals(new long[]{0, 1, 4, 5, 6, 7, 8, 9}, mSelector.getSelectedIds());
+    }
+
+    @Test
+    public void invertSelection_dropsSelectedIdsNoLongerInTheAdapter() {
+        mSelector.setSelected(new long[]{1, 9}, true);
+        mAdapter.ids.remove(9);
+        mAdapter.notifyItemRemoved(9);
+
+        mSelector.invertSelection();
+
+        assertTrue(mSelector.isInverted());
+        assertFalse(mSelector.isSelected(1));
+        assertFalse(mSelector.isSelected(9));
+        assertEquals(8, mSelector.getSelectedCount());
+    }
+
+    @Test
+    public void invertSelection_dropsUnselectedIdsNoLongerInTheAdapter() {
+        mSelector.selectAll();
+        mSelector.setSelected(new long[]{1, 9}, false);
+        mAdapter.ids.remove(9);
+        mAdapter.notifyItemRemoved(9);
+
+        mSelector.invertSelection();
+
+        assertFalse(mSelector.isInverted());
+        assertArrayEquals(new long[]{1}, mSelector.getSelectedIds());
+    }
+
+    @Test
+    public void onRestoreInstanceState_restoresTheSelection() {
+        mSelector.selectAll();
+        mSelector.setSelected(4, false);
+        Bundle state = new Bundle();
+        mSelector.onSaveInstanceState(state);
+
+        RangeMultiSelector selector =
+                new RangeMultiSelector(new RecyclerView(RuntimeEnvironment.application), mAdapter);
+        selector.onRestoreInstanceState(state);
+
+        assertTrue(selector.isInverted());
+        assertFalse(selector.isSelected(4));
+        assertEquals(9, selector.getSelectedCount());
+    }
+
+    @Test
+    public void onRestoreInstanceState_doesNotNotifyIfUnchanged() {
+        mSelector.setSelected(new long[]{2, 3, 4}, true);
+        Bundle state = new Bundle();
+        mSelector.onSaveInstanceState(state);
+        mListener.callCount = 0;
+
+        mSelector.onRestoreInstanceState(state);
+
+        assertEquals(0, mListener.callCount);
+    }
+}
@@ -0,0 +1,19 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Listener that counts its calls and keeps the ids of the last one.
+ */
+class SelectionListener implements Selector.OnSelectionChangedListener {
+    int callCount;
+    long[] selectedIds;
+    long[] previousSelectedIds;
+
+    @Override
+    public void onSelectionChanged(long[] selectedIds, @Nullable long[] previousSelectedIds) {
+        callCount++;
+        this.selectedIds = selectedIds;
+        this.previousSelectedIds = previousSelectedIds;
+    }
+}
@@ -0,0 +1,77 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SingleSelectorTest {
+    private TestAdapter mAdapter;
+    private SingleSelector mSelector;
+    private SelectionListener mListener;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter(10);
+        mSelector = new SingleSelector(new RecyclerView(RuntimeEnvironment.application), mAdapter);
+        mListener = new SelectionListener();
+        mSelector.setOnSelectionChangedListener(mListener);
+    }
+
+    @Test
+    public void setSelected_selectsOnlyTheLastId() {
+        mSelector.setSelected(new long[]{1, 2, 3}, true);
+
+        assertArrayEquals(new long[]{3}, mSelector.getSelectedIds());
+        assertEquals(1, mAdapter.changedItemCount);
+        assertEquals(1, mListener.callCount);
+    }
+
+    @Test
+    public void setSelected_deselectsTheSelectedIdIfListed() {
+        mSelector.setSelected(5, true);
+
+        mSelector.setSelected(new long[]{1, 5}, false);
+
+        assertEquals(0, mSelector.getSelectedCount());
+        assertArrayEquals(new long[]{5}, mListener.previousSelectedIds);
+    }
+
+    @Test
+    public void setSelected_keepsTheSelectedIdIfNotListed() {
+        mSelector.setSelected(5, true);
+        mAdapter.changedItemCount = 0;
+        mListener.callCount = 0;
+
+        mSelector.setSelected(new long[]{1, 2}, false);
+
+        assertTrue(mSelector.isSelected(5));
+        assertFalse(mSelector.isSelected(1));
+        assertEquals(0, mAdapter.changedItemCount);
+        assertEquals(0, mListener.callCount);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void selectAll_isUnsupported() {
+        mSelector.selectAll();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void selectRange_isUnsupported() {
+        mSelector.selectRange(2, 4);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void invertSelection_isUnsupported() {
+        mSelector.invertSelection();
+    }
+}
@@ -0,0 +1,52 @@
+package io.doist.recyclerviewext.choice_modes;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter with stable ids, which counts the items notified as changed.
+ */
+class TestAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    final List<Long> ids = new ArrayList<>();
+    int changedItemCount;
+
+    TestAdapter(int itemCount) {
+        setHasStableIds(true);
+        for (long id = 0; id < itemCount; id++) {
+            ids.add(id);
+        }
+        registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                changedItemCount += itemCount;
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+        };
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+    }
+
+    @Override
+    public int getItemCount() {
+        return ids.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return ids.get(position);
+    }
+}
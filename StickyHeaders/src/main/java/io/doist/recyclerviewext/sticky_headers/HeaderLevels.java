@@ -0,0 +1,70 @@
+package io.doist.recyclerviewext.sticky_headers;
+
+/**
+ * Levels of the headers in a {@link HeaderPositionIndex}, and the index of each header's parent, ie. the closest header
+ * before it with a lower level.
+ *
+ * Both are computed lazily, up to the last header requested. Parents are found by following the parents of the
+ * previous headers, which takes amortized constant time per header. Changes only invalidate the headers from the first
+ * one affected.
+ */
+class HeaderLevels {
+    private final HeaderPositionIndex mHeaderPositions;
+
+    private int[] mLevels = new int[0];
+    private int[] mParents = new int[0];
+    // Number of headers whose level and parent are computed.
+    private int mCount;
+
+    HeaderLevels(HeaderPositionIndex headerPositions) {
+        mHeaderPositions = headerPositions;
+    }
+
+    /**
+     * Invalidates levels and parents from header {@code index} onwards.
+     */
+    public void invalidateFrom(int index) {
+        mCount = Math.max(0, Math.min(mCount, index));
+    }
+
+    public int getLevel(StickyHeaders.Levels levels, int index) {
+        ensureComputed(levels, index);
+        return mLevels[index];
+    }
+
+    /**
+     * Returns the index of the parent of header {@code index}, or -1 if it has none.
+     */
+    public int getParent(StickyHeaders.Levels levels, int index) {
+        ensureComputed(levels, index);
+        return mParents[index];
+    }
+
+    private void ensureComputed(StickyHeaders.Levels levels, int index) {
+        if (index < mCount) {
+            return;
+        }
+
+        if (index >= mLevels.length) {
+            int capacity = Math.max(index + 1, mLevels.length + mLevels.length / 2 + 4);
+            int[] newLevels = new int[capacity];
+            int[] newParents = new int[capacity];
+            System.arraycopy(mLevels, 0, newLevels, 0, mCount);
+            System.arraycopy(mParents, 0, newParents, 0, mCount);
+            mLevels = newLevels;
+            mParents = newParents;
+        }
+
+        for (int i = mCount; i <= index; i++) {
+            int level = levels.getStickyHeaderLevel(mHeaderPositions.get(i));
+            // Skip over previous headers and their own children, which are all of the same level or higher.
+            int parent = i - 1;
+            while (parent != -1 && mLevels[parent] >= level) {
+                parent = mParents[parent];
+            }
+            mLevels[i] = level;
+            mParents[i] = parent;
+        }
+        mCount = index + 1;
+    }
+}
@@ -0,0 +1,197 @@
+package io.doist.recyclerviewext.sticky_headers;
+
+/**
+ * Sorted header positions, stored without boxing.
+ *
+ * Shifting all positions from an index onwards, as happens on every insertion or removal of items, is applied lazily:
+ * a single pending shift is kept and merged with the next one, so that consecutive changes around the same index,
+ * such as repeated insertions at the top, take constant time instead of touching every following header.
+ */
+class HeaderPositionIndex {
+    private int[] mPositions = new int[0];
+    private int mSize;
+
+    // Amount to add to all positions at or after mShiftIndex.
+    private int mShiftIndex;
+    private int mShift;
+
+    public int size() {
+        return mSize;
+    }
+
+    public int get(int index) {
+        return index >= mShiftIndex ? mPositions[index] + mShift : mPositions[index];
+    }
+
+    public void set(int index, int position) {
+        mPositions[index] = index >= mShiftIndex ? position - mShift : position;
+    }
+
+    public void clear() {
+        mSize = 0;
+        mShiftIndex = 0;
+        mShift = 0;
+    }
+
+    /**
+     * Replaces all positions with the first {@code count} in {@code positions}, which must be sorted.
+     */
+    public void setAll(int[] positions, int count) {
+        clear();
+        ensureCapacity(count);
+        System.arraycopy(positions, 0, mPositions, 0, count);
+        mSize = count;
+    }
+
+    /**
+     * Adds {@code position} after all others. It must be larger than all of them.
+     */
+    public void add(int position) {
+        insert(mSize, position);
+    }
+
+    /**
+     * Inserts {@code position} at {@code index}, keeping positions sorted.
+     */
+    public void insert(int index, int position) {
+        ensureCapacity(mSize + 1);
+        System.arraycopy(mPositions, index, mPositions, index + 1, mSize - index);
+        mSize++;
+        if (index < mShiftIndex) {
+            mShiftIndex++;
+        }
+        set(index, position);
+    }
+
+    /**
+     * Inserts the first {@code count} {@code positions} at {@code index}, keeping positions sorted.
+     */
+    public void insertAll(int index, int[] positions, int count) {
+        ensureCapacity(mSize + count);
+        System.arraycopy(mPositions, index, mPositions, index + count, mSize - index);
+        mSize += count;
+        if (index < mShiftIndex) {
+            mShiftIndex += count;
+        }
+        for (int i = 0; i < count; i++) {
+            set(index + i, positions[i]);
+        }
+    }
+
+    public int removeAt(int index) {
+        int position = get(index);
+        removeRange(index, index + 1);
+        return position;
+    }
+
+    /**
+     * Removes positions from {@code fromIndex}, inclusive, to {@code toIndex}, exclusive.
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        int count = toIndex - fromIndex;
+        if (count > 0) {
+            if (toIndex <= mShiftIndex) {
+                mShiftIndex -= count;
+            } else if (fromIndex < mShiftIndex) {
+                // Shifted elements left after the removed ones now start at fromIndex.
+                mShiftIndex = fromIndex;
+            }
+            System.arraycopy(mPositions, toIndex, mPositions, fromIndex, mSize - toIndex);
+            mSize -= count;
+        }
+    }
+
+    /**
+     * Adds {@code delta} to all positions at or after {@code fromIndex}.
+     */
+    public void shift(int fromIndex, int delta) {
+        if (fromIndex >= mSize || delta == 0) {
+            return;
+        }
+        if (mShift == 0) {
+            mShiftIndex = fromIndex;
+        } else if (fromIndex > mShiftIndex) {
+            // Apply the pending shift up to the new index, then keep both pending from there.
+            applyShift(mShiftIndex, fromIndex);
+            mShiftIndex = fromIndex;
+        } else if (fromIndex < mShiftIndex) {
+            // Apply the new shift up to the pending index, then keep both pending from there.
+            for (int i = fromIndex; i < mShiftIndex; i++) {
+                mPositions[i] += delta;
+            }
+        }
+        mShift += delta;
+    }
+
+    public boolean contains(int position) {
+        return findIndex(position) != -1;
+    }
+
+    /**
+     * Finds the index of {@code position}, or -1 if it's not a header.
+     */
+    public int findIndex(int position) {
+        int low = 0;
+        int high = mSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middlePosition = get(middle);
+            if (middlePosition > position) {
+                high = middle - 1;
+            } else if (middlePosition < position) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the index of {@code position} or the header before it, or -1 if there is none.
+     */
+    public int findIndexOrBefore(int position) {
+        int low = 0;
+        int high = mSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle) > position) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Finds the index of {@code position} or the header after it, or -1 if there is none.
+     */
+    public int findIndexOrNext(int position) {
+        int low = 0;
+        int high = mSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle) < position) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low < mSize ? low : -1;
+    }
+
+    private void applyShift(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            mPositions[i] += mShift;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mPositions.length) {
+            int[] positions = mPositions;
+            mPositions = new int[Math.max(capacity, mPositions.length + mPositions.length / 2 + 4)];
+            System.arraycopy(positions, 0, mPositions, 0, mSize);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.doist.recyclerviewext.sticky_headers;
 
 import android.view.View;
 
+import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 /**
@@ -27,4 +28,50 @@ public interface StickyHeaders {
          */
         void teardownStickyHeaderView(View stickyHeader);
     }
+
+    /**
+     * Nests sticky headers, so that the headers of the enclosing sections are stacked above the current one, up to 4
+     * levels deep.
+     */
+    interface Levels {
+        /**
+         * Returns the level of the sticky header at {@code position}, 0 being the outermost. A header's section ends
+         * at the next header of the same or a lower level.
+         */
+        int getStickyHeaderLevel(int position);
+    }
+
+    /**
+     * Provides a hash of each sticky header's content, so that the sticky header is only rebound when it changes,
+     * besides when the position changes or the item is notified as changed.
+     */
+    interface ContentHash {
+        long getStickyHeaderContentHash(int position);
+    }
+
+    /**
+     * Provides all header positions at once, so that they don't need to be found by calling
+     * {@link #isStickyHeader(int)} for every position when the whole data set changes.
+     */
+    interface HeaderPositions {
+        /**
+         * Returns the positions of all sticky headers, sorted in ascending order.
+         */
+        @NonNull
+        int[] getStickyHeaderPositions();
+    }
+
+    /**
+     * Provides the header positions in a range, so that {@link #isStickyHeader(int)} is never called for every
+     * position. Headers changed through {@link RecyclerView.Adapter#notifyItemRangeChanged(int, int)} are also
+     * picked up.
+     */
+    interface IncrementalHeaderPositions extends HeaderPositions {
+        /**
+         * Returns the positions of the sticky headers between {@code positionStart}, inclusive, and
+         * {@code positionStart + itemCount}, exclusive, sorted in ascending order.
+         */
+        @NonNull
+        int[] getStickyHeaderPositions(int positionStart, int itemCount);
+    }
 }
@@ -0,0 +1,452 @@
+package io.doist.recyclerviewext.sticky_headers;
+
+import android.content.Context;
+import android.graphics.PointF;
+import android.os.Parcelable;
+import android.util.SparseIntArray;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adds sticky headers capabilities to your {@link RecyclerView.Adapter} in a grid, like
+ * {@link StickyHeadersLinearLayoutManager}. Headers always span all columns, regardless of the
+ * {@link GridLayoutManager.SpanSizeLookup} set.
+ */
+public class StickyHeadersGridLayoutManager<T extends RecyclerView.Adapter & StickyHeaders>
+        extends GridLayoutManager {
+    private final StickyHeadersHelper<T> mHelper = new StickyHeadersHelper<>(
+            this, new StickyHeadersHelper.ScrollToPositionWithOffset() {
+                @Override
+                public void scrollToPositionWithOffset(int position, int offset) {
+                    StickyHeadersGridLayoutManager.super.scrollToPositionWithOffset(position, offset);
+                }
+            });
+
+    // Span size lookup set by the user, consulted for all items except headers.
+    private SpanSizeLookup mSpanSizeLookup = new DefaultSpanSizeLookup();
+    private final SpanSizeLookup mHeaderSpanSizeLookup = new HeaderSpanSizeLookup();
+
+    public StickyHeadersGridLayoutManager(Context context, int spanCount) {
+        super(context, spanCount);
+        init();
+    }
+
+    public StickyHeadersGridLayoutManager(
+            Context context, int spanCount, @RecyclerView.Orientation int orientation, boolean reverseLayout) {
+        super(context, spanCount, orientation, reverseLayout);
+        init();
+    }
+
+    private void init() {
+        super.setSpanSizeLookup(mHeaderSpanSizeLookup);
+    }
+
+    /**
+     * Offsets the vertical location of the sticky header relative to the its default position.
+     */
+    public void setStickyHeaderTranslationY(float translationY) {
+        mHelper.setStickyHeaderTranslationY(translationY);
+    }
+
+    /**
+     * Offsets the horizontal location of the sticky header relative to the its default position.
+     */
+    public void setStickyHeaderTranslationX(float translationX) {
+        mHelper.setStickyHeaderTranslationX(translationX);
+    }
+
+    /**
+     * Returns true if {@code view} is one of the current sticky headers.
+     */
+    public boolean isStickyHeader(View view) {
+        return mHelper.isStickyHeader(view);
+    }
+
+    /**
+     * Returns the number of sections, ie. of sticky headers in the adapter.
+     */
+    public int getSectionCount() {
+        return mHelper.getSectionCount();
+    }
+
+    /**
+     * Returns the section {@code position} is in, ie. the index of the header at or before it, or -1 if it comes
+     * before the first header.
+     *
+     * Sections are kept up to date as the adapter notifies changes, so this never goes through the adapter.
+     */
+    public int getSectionForPosition(int position) {
+        return mHelper.getSectionForPosition(position);
+    }
+
+    /**
+     * Returns the adapter position of the header of {@code section}.
+     */
+    public int getPositionForSection(int section) {
+        return mHelper.getPositionForSection(section);
+    }
+
+    /**
+     * Sets a listener to be notified whenever the sticky header changes, eg. to update a fast scroll label.
+     */
+    public void setOnStickyHeaderChangedListener(
+            @Nullable StickyHeadersLinearLayoutManager.OnStickyHeaderChangedListener listener) {
+        mHelper.setOnStickyHeaderChangedListener(listener);
+    }
+
+    /**
+     * Sets how many unused sticky header views are kept, one per view type, so that switching between header types
+     * only requires a rebind instead of creating, binding and measuring a view. Defaults to 2, 0 disables caching.
+     *
+     * Cached views are released when the adapter changes, when detached from the window or when calling
+     * {@link #clearStickyHeaderCache()}.
+     */
+    public void setStickyHeaderCacheSize(int size) {
+        mHelper.setStickyHeaderCacheSize(size);
+    }
+
+    /**
+     * Releases all cached sticky header views, eg. when the system is low on memory.
+     */
+    public void clearStickyHeaderCache() {
+        mHelper.clearStickyHeaderCache();
+    }
+
+    /**
+     * Sets the span size lookup for all items except headers, which always span all columns.
+     */
+    @Override
+    public void setSpanSizeLookup(SpanSizeLookup spanSizeLookup) {
+        mSpanSizeLookup = spanSizeLookup;
+        mHeaderSpanSizeLookup.invalidateSpanIndexCache();
+        requestLayout();
+    }
+
+    @Override
+    public SpanSizeLookup getSpanSizeLookup() {
+        return mSpanSizeLookup;
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        mHelper.onAttachedToWindow(view);
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        mHelper.onDetachedFromWindow(recycler);
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        super.onAdapterChanged(oldAdapter, newAdapter);
+        mHelper.onAdapterChanged(newAdapter);
+    }
+
+    @Override
+    public Parcelable onSaveInstanceState() {
+        return mHelper.onSaveInstanceState(super.onSaveInstanceState());
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        super.onRestoreInstanceState(mHelper.onRestoreInstanceState(state));
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        mHelper.detachStickyHeaders();
+        int scrolled = super.scrollVerticallyBy(dy, recycler, state);
+        mHelper.attachStickyHeaders();
+
+        if (scrolled != 0) {
+            mHelper.updateStickyHeaders(recycler, false);
+        }
+
+        return scrolled;
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        mHelper.detachStickyHeaders();
+        int scrolled = super.scrollHorizontallyBy(dx, recycler, state);
+        mHelper.attachStickyHeaders();
+
+        if (scrolled != 0) {
+            mHelper.updateStickyHeaders(recycler, false);
+        }
+
+        return scrolled;
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        mHelper.detachStickyHeaders();
+        super.onLayoutChildren(recycler, state);
+        mHelper.attachStickyHeaders();
+
+        if (!state.isPreLayout()) {
+            mHelper.updateStickyHeaders(recycler, true);
+        }
+    }
+
+    /**
+     * Besides prefetching items, prefetches the header that will become sticky next in the scroll direction, so that
+     * swapping it in when the current one is pushed away doesn't bind it within the scroll frame.
+     */
+    @Override
+    public void collectAdjacentPrefetchPositions(
+            int dx, int dy, RecyclerView.State state, LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        super.collectAdjacentPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+        mHelper.collectAdjacentPrefetchPositions(dx, dy, state, layoutPrefetchRegistry);
+    }
+
+    @Override
+    public void scrollToPosition(int position) {
+        scrollToPositionWithOffset(position, INVALID_OFFSET);
+    }
+
+    @Override
+    public void scrollToPositionWithOffset(int position, int offset) {
+        mHelper.scrollToPositionWithOffset(position, offset);
+    }
+
+    /**
+     * Leaves out the sticky headers while they're excluded, so that queries don't need to detach them.
+     */
+    @Override
+    public int getChildCount() {
+        return super.getChildCount() - mHelper.getExcludedStickyHeaderCount();
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        mHelper.excludeStickyHeaders();
+        int extent = super.computeVerticalScrollExtent(state);
+        mHelper.includeStickyHeaders();
+        return extent;
+    }
+
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        mHelper.excludeStickyHeaders();
+        int offset = super.computeVerticalScrollOffset(state);
+        mHelper.includeStickyHeaders();
+        return offset;
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        mHelper.excludeStickyHeaders();
+        int range = super.computeVerticalScrollRange(state);
+        mHelper.includeStickyHeaders();
+        return range;
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        mHelper.excludeStickyHeaders();
+        int extent = super.computeHorizontalScrollExtent(state);
+        mHelper.includeStickyHeaders();
+        return extent;
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        mHelper.excludeStickyHeaders();
+        int offset = super.computeHorizontalScrollOffset(state);
+        mHelper.includeStickyHeaders();
+        return offset;
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        mHelper.excludeStickyHeaders();
+        int range = super.computeHorizontalScrollRange(state);
+        mHelper.includeStickyHeaders();
+        return range;
+    }
+
+    @Override
+    public PointF computeScrollVectorForPosition(int targetPosition) {
+        mHelper.excludeStickyHeaders();
+        PointF vector = super.computeScrollVectorForPosition(targetPosition);
+        mHelper.includeStickyHeaders();
+        return vector;
+    }
+
+    @Override
+    public int findFirstVisibleItemPosition() {
+        mHelper.excludeStickyHeaders();
+        int position = super.findFirstVisibleItemPosition();
+        mHelper.includeStickyHeaders();
+        return position;
+    }
+
+    @Override
+    public int findFirstCompletelyVisibleItemPosition() {
+        mHelper.excludeStickyHeaders();
+        int position = super.findFirstCompletelyVisibleItemPosition();
+        mHelper.includeStickyHeaders();
+        return position;
+    }
+
+    @Override
+    public int findLastVisibleItemPosition() {
+        mHelper.excludeStickyHeaders();
+        int position = super.findLastVisibleItemPosition();
+        mHelper.includeStickyHeaders();
+        return position;
+    }
+
+    @Override
+    public int findLastCompletelyVisibleItemPosition() {
+        mHelper.excludeStickyHeaders();
+        int position = super.findLastCompletelyVisibleItemPosition();
+        mHelper.includeStickyHeaders();
+        return position;
+    }
+
+    @Override
+    public View onFocusSearchFailed(
+            View focused, int focusDirection, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        mHelper.detachStickyHeaders();
+        View view = super.onFocusSearchFailed(focused, focusDirection, recycler, state);
+        mHelper.attachStickyHeaders();
+        return view;
+    }
+
+    /**
+     * Makes headers span all columns and delegates all other items to {@link #mSpanSizeLookup}.
+     *
+     * Span and span group indexes are cached, and each lookup starts from the nearest earlier cached position, so
+     * looking up positions in order, as when laying out, costs constant time per item. Since every header starts a new
+     * row, span indexes also never start before the header of the item's section, and are computed directly if
+     * {@link #mSpanSizeLookup} is a {@link DefaultSpanSizeLookup}.
+     */
+    private class HeaderSpanSizeLookup extends SpanSizeLookup {
+        private final SparseIntArray mSpanIndexCache = new SparseIntArray();
+        private final SparseIntArray mSpanGroupIndexCache = new SparseIntArray();
+        private int mCachedSpanCount;
+
+        @Override
+        public int getSpanSize(int position) {
+            return mHelper.isHeaderPosition(position) ? getSpanCount() : mSpanSizeLookup.getSpanSize(position);
+        }
+
+        @Override
+        public int getSpanIndex(int position, int spanCount) {
+            if (mHelper.isHeaderPosition(position)) {
+                return 0;
+            }
+
+            int section = mHelper.getSectionForPosition(position);
+            int start = section != -1 ? mHelper.getPositionForSection(section) + 1 : 0;
+            if (mSpanSizeLookup instanceof DefaultSpanSizeLookup) {
+                return (position - start) % spanCount;
+            }
+
+            validateCache(spanCount);
+            int cachedSpanIndex = mSpanIndexCache.get(position, -1);
+            if (cachedSpanIndex != -1) {
+                return cachedSpanIndex;
+            }
+
+            // Start from the nearest earlier cached position in the same section, or the section's first item.
+            int spanIndex = 0;
+            int cacheIndex = findReferenceIndex(mSpanIndexCache, position);
+            if (cacheIndex != -1 && mSpanIndexCache.keyAt(cacheIndex) >= start) {
+                spanIndex = mSpanIndexCache.valueAt(cacheIndex);
+                start = mSpanIndexCache.keyAt(cacheIndex);
+            }
+            for (int i = start; i < position; i++) {
+                int spanSize = getSpanSize(i);
+                spanIndex += spanSize;
+                if (spanIndex == spanCount) {
+                    spanIndex = 0;
+                } else if (spanIndex > spanCount) {
+                    // Did not fit, moving to the next row.
+                    spanIndex = spanSize;
+                }
+            }
+            if (spanIndex + getSpanSize(position) > spanCount) {
+                spanIndex = 0;
+            }
+            mSpanIndexCache.put(position, spanIndex);
+            return spanIndex;
+        }
+
+        @Override
+        public int getSpanGroupIndex(int position, int spanCount) {
+            validateCache(spanCount);
+            int cachedSpanGroupIndex = mSpanGroupIndexCache.get(position, -1);
+            if (cachedSpanGroupIndex != -1) {
+                return cachedSpanGroupIndex;
+            }
+
+            // Start from the nearest earlier cached position, as rows are counted from the first item.
+            int start = 0;
+            int spanIndex = 0;
+            int spanGroupIndex = 0;
+            int cacheIndex = findReferenceIndex(mSpanGroupIndexCache, position);
+            if (cacheIndex != -1) {
+                start = mSpanGroupIndexCache.keyAt(cacheIndex);
+                spanIndex = getSpanIndex(start, spanCount);
+                spanGroupIndex = mSpanGroupIndexCache.valueAt(cacheIndex);
+            }
+            for (int i = start; i < position; i++) {
+                int spanSize = getSpanSize(i);
+                spanIndex += spanSize;
+                if (spanIndex == spanCount) {
+                    spanIndex = 0;
+                    spanGroupIndex++;
+                } else if (spanIndex > spanCount) {
+                    // Did not fit, moving to the next row.
+                    spanIndex = spanSize;
+                    spanGroupIndex++;
+                }
+            }
+            if (spanIndex + getSpanSize(position) > spanCount) {
+                spanGroupIndex++;
+            }
+            mSpanGroupIndexCache.put(position, spanGroupIndex);
+            return spanGroupIndex;
+        }
+
+        @Override
+        public void invalidateSpanIndexCache() {
+            super.invalidateSpanIndexCache();
+            mSpanIndexCache.clear();
+            mSpanGroupIndexCache.clear();
+        }
+
+        private void validateCache(int spanCount) {
+            if (spanCount != mCachedSpanCount) {
+                invalidateSpanIndexCache();
+                mCachedSpanCount = spanCount;
+            }
+        }
+
+        /**
+         * Returns the index of the greatest position in {@code cache} before {@code position}, or -1 if there's none.
+         */
+        private int findReferenceIndex(SparseIntArray cache, int position) {
+            int low = 0;
+            int high = cache.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (cache.keyAt(mid) < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
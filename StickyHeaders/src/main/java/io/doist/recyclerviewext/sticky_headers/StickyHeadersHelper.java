@@ -0,0 +1,1187 @@
+package io.doist.recyclerviewext.sticky_headers;
+
+import android.os.Parcelable;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Sticky headers for a {@link LinearLayoutManager} or any of its subclasses, which delegate to it from their
+ * overrides: header positions, sticky header views and their lifecycle, and scrolling adjusted for them.
+ *
+ * The sticky headers are children of the layout manager, which must detach them around any call to its superclass
+ * that lays out or goes through the children, using {@link #detachStickyHeaders()} and
+ * {@link #attachStickyHeaders()}.
+ */
+class StickyHeadersHelper<T extends RecyclerView.Adapter & StickyHeaders> {
+    private static final int DEFAULT_STICKY_HEADER_CACHE_SIZE = 2;
+
+    // Maximum number of sticky headers stacked when the adapter implements StickyHeaders.Levels.
+    private static final int MAX_STICKY_HEADER_LEVELS = 4;
+
+    private final LinearLayoutManager mLayoutManager;
+    private final ScrollToPositionWithOffset mScrollToPositionWithOffset;
+
+    private T mAdapter;
+
+    private float mTranslationX;
+    private float mTranslationY;
+
+    // Header positions for the currently displayed list, their levels and their observer.
+    private final HeaderPositionIndex mHeaderPositions = new HeaderPositionIndex();
+    private final HeaderLevels mHeaderLevels = new HeaderLevels(mHeaderPositions);
+    private final RecyclerView.AdapterDataObserver mHeaderPositionsObserver = new HeaderPositionsAdapterDataObserver();
+
+    // Sticky headers, outermost first, and their positions. Only the first mStickyHeaderCount are in use.
+    private final View[] mStickyHeaders = new View[MAX_STICKY_HEADER_LEVELS];
+    private final int[] mStickyHeaderPositions = new int[MAX_STICKY_HEADER_LEVELS];
+    private int mStickyHeaderCount;
+    // Whether each sticky header's item was notified as changed, and its content hash when last bound.
+    private final boolean[] mStickyHeadersDirty = new boolean[MAX_STICKY_HEADER_LEVELS];
+    private final long[] mStickyHeaderContentHashes = new long[MAX_STICKY_HEADER_LEVELS];
+
+    // Sticky header views no longer in use, kept detached by view type to be rebound when needed again.
+    private final SparseArray<View> mStickyHeaderCache = new SparseArray<>();
+    private int mStickyHeaderCacheSize = DEFAULT_STICKY_HEADER_CACHE_SIZE;
+
+    // Upcoming sticky header position registered for prefetching, whose holder is adopted when it becomes sticky.
+    private int mPrefetchedStickyHeaderPosition = RecyclerView.NO_POSITION;
+    // Position of the first valid child when the sticky headers were last updated.
+    private int mAnchorPosition = RecyclerView.NO_POSITION;
+    // Header index of each level's anchor section, for the anchor position it was last found for.
+    private final int[] mHeadersAnchorPositions = new int[MAX_STICKY_HEADER_LEVELS];
+    private final int[] mAnchorHeaderIndexes = new int[MAX_STICKY_HEADER_LEVELS];
+
+    private int mPendingScrollPosition = RecyclerView.NO_POSITION;
+    private int mPendingScrollOffset = 0;
+
+    // Attach count, to ensure the sticky headers are only attached and detached when expected.
+    private int mStickyHeaderAttachCount = 0;
+    // Exclude count, for the sticky headers to be left out of the children while answering queries.
+    private int mStickyHeaderExcludeCount = 0;
+    // Whether the sticky headers were detached while excluded, as they weren't the last children.
+    private boolean mStickyHeadersDetachedForExclusion;
+
+    private StickyHeadersLinearLayoutManager.OnStickyHeaderChangedListener mOnStickyHeaderChangedListener;
+    // Sticky header position last dispatched to the listener.
+    private int mDispatchedStickyHeaderPosition = RecyclerView.NO_POSITION;
+
+    /**
+     * @param scrollToPositionWithOffset Scrolls {@code layoutManager} without adjusting for sticky headers, ie. its
+     *                                   superclass implementation.
+     */
+    StickyHeadersHelper(
+            @NonNull LinearLayoutManager layoutManager, @NonNull ScrollToPositionWithOffset scrollToPositionWithOffset) {
+        mLayoutManager = layoutManager;
+        mScrollToPositionWithOffset = scrollToPositionWithOffset;
+        invalidateAnchorHeaders();
+    }
+
+    public void setStickyHeaderTranslationY(float translationY) {
+        mTranslationY = translationY;
+        mLayoutManager.requestLayout();
+    }
+
+    public void setStickyHeaderTranslationX(float translationX) {
+        mTranslationX = translationX;
+        mLayoutManager.requestLayout();
+    }
+
+    public boolean isStickyHeader(View view) {
+        for (int i = 0; i < mStickyHeaderCount; i++) {
+            if (view == mStickyHeaders[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isHeaderPosition(int position) {
+        return mHeaderPositions.contains(position);
+    }
+
+    public int getSectionCount() {
+        return mHeaderPositions.size();
+    }
+
+    public int getSectionForPosition(int position) {
+        return findHeaderIndexOrBefore(position);
+    }
+
+    public int getPositionForSection(int section) {
+        if (section < 0 || section >= mHeaderPositions.size()) {
+            throw new IndexOutOfBoundsException("Section " + section + " out of " + mHeaderPositions.size());
+        }
+        return mHeaderPositions.get(section);
+    }
+
+    public void setOnStickyHeaderChangedListener(
+            @Nullable StickyHeadersLinearLayoutManager.OnStickyHeaderChangedListener listener) {
+        mOnStickyHeaderChangedListener = listener;
+    }
+
+    public void setStickyHeaderCacheSize(int size) {
+        mStickyHeaderCacheSize = size;
+        while (mStickyHeaderCache.size() > size) {
+            releaseCachedStickyHeader(0, null);
+        }
+    }
+
+    public void clearStickyHeaderCache() {
+        clearStickyHeaderCache(null);
+    }
+
+    public void onAttachedToWindow(RecyclerView view) {
+        setAdapter(view.getAdapter());
+    }
+
+    public void onDetachedFromWindow(RecyclerView.Recycler recycler) {
+        clearStickyHeaderCache(recycler);
+    }
+
+    public void onAdapterChanged(RecyclerView.Adapter newAdapter) {
+        clearStickyHeaderCache(null);
+        setAdapter(newAdapter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setAdapter(RecyclerView.Adapter adapter) {
+        if (mAdapter != null) {
+            mAdapter.unregisterAdapterDataObserver(mHeaderPositionsObserver);
+        }
+
+        if (adapter instanceof StickyHeaders) {
+            mAdapter = (T) adapter;
+            mAdapter.registerAdapterDataObserver(mHeaderPositionsObserver);
+            mHeaderPositionsObserver.onChanged();
+        } else {
+            mAdapter = null;
+            mHeaderPositions.clear();
+            mHeaderLevels.invalidateFrom(0);
+            invalidateAnchorHeaders();
+        }
+    }
+
+    public Parcelable onSaveInstanceState(Parcelable superState) {
+        StickyHeadersLinearLayoutManager.SavedState ss = new StickyHeadersLinearLayoutManager.SavedState();
+        ss.superState = superState;
+        ss.pendingScrollPosition = mPendingScrollPosition;
+        ss.pendingScrollOffset = mPendingScrollOffset;
+        return ss;
+    }
+
+    /**
+     * Restores the pending scroll from {@code state} and returns the state of the layout manager's superclass.
+     */
+    public Parcelable onRestoreInstanceState(Parcelable state) {
+        if (state instanceof StickyHeadersLinearLayoutManager.SavedState) {
+            StickyHeadersLinearLayoutManager.SavedState ss = (StickyHeadersLinearLayoutManager.SavedState) state;
+            mPendingScrollPosition = ss.pendingScrollPosition;
+            mPendingScrollOffset = ss.pendingScrollOffset;
+            state = ss.superState;
+        }
+        return state;
+    }
+
+    /**
+     * Registers the header that will become sticky next in the scroll direction for prefetching, so that GapWorker
+     * binds it within its frame deadline and swapping it in when the current one is pushed away only adopts it.
+     */
+    public void collectAdjacentPrefetchPositions(
+            int dx, int dy, RecyclerView.State state, RecyclerView.LayoutManager.LayoutPrefetchRegistry registry) {
+        mPrefetchedStickyHeaderPosition = RecyclerView.NO_POSITION;
+        int delta = mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL ? dy : dx;
+        if (mAdapter == null || delta == 0 || mAnchorPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        // Scrolling towards the end, the next header becomes sticky. Towards the start, the previous one does.
+        int stickyHeaderPos = getInnermostStickyHeaderPosition();
+        int headerIndex;
+        if ((delta > 0) != mLayoutManager.getReverseLayout()) {
+            headerIndex = findHeaderIndexOrNext(
+                    stickyHeaderPos != RecyclerView.NO_POSITION ? stickyHeaderPos + 1 : mAnchorPosition);
+        } else {
+            headerIndex = stickyHeaderPos != RecyclerView.NO_POSITION
+                          ? findHeaderIndexOrBefore(stickyHeaderPos - 1)
+                          : -1;
+        }
+        if (headerIndex != -1) {
+            int headerPos = mHeaderPositions.get(headerIndex);
+            // Headers laid out as regular items aren't prefetched, as their holder is in use.
+            int childCount = mLayoutManager.getChildCount() - mStickyHeaderCount;
+            if (headerPos < state.getItemCount()
+                    && findStickyHeaderLevel(headerPos) == -1
+                    && (childCount == 0 || findChildView(headerPos, childCount) == null)) {
+                // Report it a list's extent away, so that it's not treated as immediate and fits within the deadline.
+                registry.addPosition(headerPos, getExtent());
+                mPrefetchedStickyHeaderPosition = headerPos;
+            }
+        }
+    }
+
+    /**
+     * Scrolls to {@code position} so that it's not covered by the sticky headers.
+     */
+    public void scrollToPositionWithOffset(int position, int offset) {
+        // Reset pending scroll.
+        setPendingScroll(RecyclerView.NO_POSITION, LinearLayoutManager.INVALID_OFFSET);
+
+        // There is no header above or the position is a header.
+        int headerIndex = findHeaderIndexOrBefore(position);
+        if (headerIndex == -1 || findHeaderIndex(position) != -1) {
+            mScrollToPositionWithOffset.scrollToPositionWithOffset(position, offset);
+            return;
+        }
+
+        // The position is right below a header, scroll to the header.
+        if (findHeaderIndex(position - 1) != -1) {
+            mScrollToPositionWithOffset.scrollToPositionWithOffset(position - 1, offset);
+            return;
+        }
+
+        // Current sticky header is the same as at the position. Adjust the scroll offset by the size of all sticky
+        // headers and reset pending scroll.
+        if (mStickyHeaderCount > 0 && headerIndex == findHeaderIndex(getInnermostStickyHeaderPosition())) {
+            int adjustedOffset = offset != LinearLayoutManager.INVALID_OFFSET ? offset : 0;
+            for (int i = 0; i < mStickyHeaderCount; i++) {
+                adjustedOffset += getStickyHeaderSize(mStickyHeaders[i]);
+            }
+            mScrollToPositionWithOffset.scrollToPositionWithOffset(position, adjustedOffset);
+            return;
+        }
+
+        // Remember this position and offset and scroll to it to trigger creating the sticky header.
+        setPendingScroll(position, offset);
+        mScrollToPositionWithOffset.scrollToPositionWithOffset(position, offset);
+    }
+
+    public void detachStickyHeaders() {
+        if (--mStickyHeaderAttachCount == 0) {
+            for (int i = 0; i < mStickyHeaderCount; i++) {
+                mLayoutManager.detachView(mStickyHeaders[i]);
+            }
+        }
+    }
+
+    public void attachStickyHeaders() {
+        if (++mStickyHeaderAttachCount == 1) {
+            // Attach outer sticky headers last, so they're drawn over the inner ones being pushed beneath them.
+            for (int i = mStickyHeaderCount - 1; i >= 0; i--) {
+                mLayoutManager.attachView(mStickyHeaders[i]);
+            }
+        }
+    }
+
+    /**
+     * Leaves the sticky headers out of the layout manager's children until {@link #includeStickyHeaders()}. The layout
+     * manager's {@code getChildCount()} must subtract {@link #getExcludedStickyHeaderCount()}, which leaves them out
+     * without detaching them if they're its last children. Otherwise, they're detached.
+     *
+     * Only for calls that don't add or remove children, such as finding visible items or computing scroll offsets.
+     */
+    public void excludeStickyHeaders() {
+        if (mStickyHeaderExcludeCount == 0) {
+            mStickyHeadersDetachedForExclusion = !areStickyHeadersLastChildren();
+            if (mStickyHeadersDetachedForExclusion) {
+                detachStickyHeaders();
+            }
+        }
+        mStickyHeaderExcludeCount++;
+    }
+
+    public void includeStickyHeaders() {
+        if (--mStickyHeaderExcludeCount == 0 && mStickyHeadersDetachedForExclusion) {
+            mStickyHeadersDetachedForExclusion = false;
+            attachStickyHeaders();
+        }
+    }
+
+    public int getExcludedStickyHeaderCount() {
+        return mStickyHeaderExcludeCount > 0 && !mStickyHeadersDetachedForExclusion && mStickyHeaderAttachCount > 0
+               ? mStickyHeaderCount
+               : 0;
+    }
+
+    /**
+     * Returns whether the attached sticky headers are the layout manager's last children, outer levels last.
+     */
+    private boolean areStickyHeadersLastChildren() {
+        if (mStickyHeaderAttachCount <= 0) {
+            return true;
+        }
+        // Not excluded yet, so all children are counted.
+        int childCount = mLayoutManager.getChildCount();
+        if (childCount < mStickyHeaderCount) {
+            return false;
+        }
+        for (int i = 0; i < mStickyHeaderCount; i++) {
+            if (mLayoutManager.getChildAt(childCount - 1 - i) != mStickyHeaders[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates the sticky headers state (creation, binding, display), to be called whenever there's a layout or scroll.
+     *
+     * Starting from the outermost, the sticky header of each level is the one for the section at the edge, past the
+     * sticky headers of the previous levels. Each level only visits the children that crossed its edge since the last
+     * update, and the headers laid out past it, so the cost per level doesn't depend on the number of items.
+     */
+    public void updateStickyHeaders(RecyclerView.Recycler recycler, boolean layout) {
+        int headerCount = mHeaderPositions.size();
+        // Sticky headers are attached after all other children.
+        int childCount = mLayoutManager.getChildCount() - mStickyHeaderCount;
+        int anchorIndex = layout ? 0 : getAnchorIndexHint();
+        mAnchorPosition = RecyclerView.NO_POSITION;
+        int count = 0;
+        if (headerCount > 0 && childCount > 0) {
+            int maxCount = mAdapter instanceof StickyHeaders.Levels ? MAX_STICKY_HEADER_LEVELS : 1;
+            int lastPosition = mLayoutManager.getPosition(mLayoutManager.getChildAt(childCount - 1));
+            int offset = 0;
+            int parentIndex = -1;
+            int parentPusherIndex = -1;
+            while (count < maxCount) {
+                // Find first valid child past the sticky headers above. When scrolling, start from the last one, as it
+                // only moves by a few children. On other levels, start from the previous level's.
+                anchorIndex = findAnchorIndex(anchorIndex, childCount, offset);
+                if (anchorIndex == -1) {
+                    break;
+                }
+                View anchorView = mLayoutManager.getChildAt(anchorIndex);
+                int anchorPos = ((RecyclerView.LayoutParams) anchorView.getLayoutParams()).getViewAdapterPosition();
+                if (count == 0) {
+                    mAnchorPosition = anchorPos;
+                }
+                if (anchorPos == RecyclerView.NO_POSITION) {
+                    break;
+                }
+
+                // Find the header of the anchor's section, unless it's the same as last time. If the header ending
+                // the parent's section is already being pushed past the anchor, use the last one before it.
+                int headerIndex;
+                boolean pushed = parentPusherIndex != -1 && mHeaderPositions.get(parentPusherIndex) <= anchorPos;
+                if (pushed) {
+                    headerIndex = parentPusherIndex - 1;
+                } else {
+                    if (anchorPos != mHeadersAnchorPositions[count]) {
+                        mAnchorHeaderIndexes[count] = findHeaderIndexOrBefore(anchorPos);
+                        mHeadersAnchorPositions[count] = anchorPos;
+                    }
+                    headerIndex = mAnchorHeaderIndexes[count];
+                }
+
+                // The sticky header of this level is the one in the chain of parents right below the previous level.
+                headerIndex = findChildHeaderIndex(headerIndex, parentIndex);
+                int headerPos = headerIndex != -1 ? mHeaderPositions.get(headerIndex) : -1;
+
+                // Show sticky header if:
+                // - There's one to show;
+                // - It's on the edge or it's not the anchor view;
+                // - Isn't followed by another sticky header of the same or a lower level;
+                if (headerPos == -1
+                        || (!pushed && headerPos == anchorPos && !isViewOnBoundary(anchorView, offset))
+                        || (headerIndex + 1 < headerCount
+                        && mHeaderPositions.get(headerIndex + 1) == headerPos + 1
+                        && getHeaderLevel(headerIndex + 1) <= getHeaderLevel(headerIndex))) {
+                    break;
+                }
+
+                View stickyHeader = updateStickyHeader(recycler, count, headerPos, layout);
+
+                // Draw the sticky header using translation values which depend on orientation, direction, position of
+                // the header that ends its section and of the sticky header above.
+                int pusherIndex = findPusherIndex(
+                        headerIndex, pushed ? headerIndex + 1 : mAnchorHeaderIndexes[count] + 1, lastPosition);
+                View pusherView =
+                        pusherIndex != -1 ? findChildView(mHeaderPositions.get(pusherIndex), childCount) : null;
+                View parentView = count > 0 ? mStickyHeaders[count - 1] : null;
+                stickyHeader.setTranslationX(getX(stickyHeader, pusherView, offset, parentView));
+                stickyHeader.setTranslationY(getY(stickyHeader, pusherView, offset, parentView));
+
+                offset += getStickyHeaderSize(stickyHeader);
+                parentIndex = headerIndex;
+                parentPusherIndex = pusherIndex;
+                count++;
+            }
+        }
+
+        scrapStickyHeaders(recycler, count);
+        dispatchStickyHeaderChanged();
+    }
+
+    /**
+     * Ensures the sticky header of level {@code level} is created, if absent, or bound, if being laid out or the
+     * position changed, and returns it.
+     */
+    private View updateStickyHeader(RecyclerView.Recycler recycler, int level, int position, boolean layout) {
+        // Ensure existing sticky header, if any, is of correct type. Its type can only change on layout.
+        if (level < mStickyHeaderCount
+                && (layout || mStickyHeaderPositions[level] != position)
+                && mLayoutManager.getItemViewType(mStickyHeaders[level]) != mAdapter.getItemViewType(position)) {
+            // A sticky header was shown before but is not of the correct type. Scrap it.
+            scrapStickyHeader(recycler, level);
+        }
+
+        if (level >= mStickyHeaderCount || mStickyHeaders[level] == null) {
+            createStickyHeader(recycler, level, position);
+        }
+        // Compare against the tracked position, as ignored views' own positions aren't offset by adapter changes.
+        View stickyHeader = mStickyHeaders[level];
+        if (mStickyHeaderPositions[level] != position
+                || (layout && (mStickyHeadersDirty[level] || hasStickyHeaderContentChanged(level, position)))) {
+            bindStickyHeader(recycler, level, position);
+        } else if (layout && isStickyHeaderLayoutStale(stickyHeader)) {
+            measureAndLayout(stickyHeader);
+        }
+        return stickyHeader;
+    }
+
+    private void dispatchStickyHeaderChanged() {
+        int position = getInnermostStickyHeaderPosition();
+        if (mDispatchedStickyHeaderPosition != position) {
+            mDispatchedStickyHeaderPosition = position;
+            if (mOnStickyHeaderChangedListener != null) {
+                mOnStickyHeaderChangedListener.onStickyHeaderChanged(position);
+            }
+        }
+    }
+
+    private int getInnermostStickyHeaderPosition() {
+        return mStickyHeaderCount > 0 ? mStickyHeaderPositions[mStickyHeaderCount - 1] : RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * Returns the level of the sticky header currently showing {@code position}, or -1 if there's none.
+     */
+    private int findStickyHeaderLevel(int position) {
+        for (int i = 0; i < mStickyHeaderCount; i++) {
+            if (mStickyHeaderPositions[i] == position) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates {@link RecyclerView.ViewHolder} for {@code position}, including measure / layout, and assigns it to
+     * the sticky header of {@code level}, which must be the next level or one that was scrapped.
+     */
+    private void createStickyHeader(@NonNull RecyclerView.Recycler recycler, int level, int position) {
+        // Add sticky headers right before the ones of the previous levels, so they're drawn beneath them.
+        int index = mLayoutManager.getChildCount() - level;
+
+        // Reuse a cached sticky header of the same type, if any, unless the header was prefetched. The recycler then
+        // returns the prefetched holder, already bound.
+        int viewType = mAdapter.getItemViewType(position);
+        View cachedStickyHeader = mStickyHeaderCache.get(viewType);
+        boolean prefetched = position == mPrefetchedStickyHeaderPosition;
+        mPrefetchedStickyHeaderPosition = RecyclerView.NO_POSITION;
+        if (cachedStickyHeader != null && !prefetched) {
+            mStickyHeaderCache.remove(viewType);
+            mLayoutManager.addView(cachedStickyHeader, index);
+            setStickyHeader(level, cachedStickyHeader, position);
+            bindStickyHeader(recycler, level, position);
+            return;
+        }
+
+        View stickyHeader = recycler.getViewForPosition(position);
+
+        setStickyHeaderBound(level, position);
+
+        // Setup sticky header if the adapter requires it.
+        if (mAdapter instanceof StickyHeaders.ViewSetup) {
+            ((StickyHeaders.ViewSetup) mAdapter).setupStickyHeaderView(stickyHeader);
+        }
+
+        // Add sticky header as a child view, to be detached / reattached whenever LinearLayoutManager#fill() is called,
+        // which happens on layout and scroll (see overrides).
+        mLayoutManager.addView(stickyHeader, index);
+        measureAndLayout(stickyHeader);
+
+        // Ignore sticky header, as it's fully managed by this LayoutManager.
+        mLayoutManager.ignoreView(stickyHeader);
+
+        setStickyHeader(level, stickyHeader, position);
+
+        scrollToPendingPositionAfterLayout(stickyHeader);
+    }
+
+    private void setStickyHeader(int level, View stickyHeader, int position) {
+        mStickyHeaders[level] = stickyHeader;
+        mStickyHeaderPositions[level] = position;
+        mStickyHeaderCount = Math.max(mStickyHeaderCount, level + 1);
+        mStickyHeaderAttachCount = 1;
+    }
+
+    /**
+     * Binds the sticky header of {@code level} for the given {@code position}.
+     */
+    private void bindStickyHeader(@NonNull RecyclerView.Recycler recycler, int level, int position) {
+        // Bind the sticky header.
+        View stickyHeader = mStickyHeaders[level];
+        recycler.bindViewToPosition(stickyHeader, position);
+        mStickyHeaderPositions[level] = position;
+        setStickyHeaderBound(level, position);
+        measureAndLayout(stickyHeader);
+
+        scrollToPendingPositionAfterLayout(stickyHeader);
+    }
+
+    /**
+     * If there's a pending scroll, waits until the end of layout and scrolls again, now that the sticky header is
+     * ready.
+     */
+    private void scrollToPendingPositionAfterLayout(View stickyHeader) {
+        if (mPendingScrollPosition != RecyclerView.NO_POSITION) {
+            final ViewTreeObserver vto = stickyHeader.getViewTreeObserver();
+            vto.addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+                @Override
+                public void onGlobalLayout() {
+                    vto.removeOnGlobalLayoutListener(this);
+
+                    if (mPendingScrollPosition != RecyclerView.NO_POSITION) {
+                        scrollToPositionWithOffset(mPendingScrollPosition, mPendingScrollOffset);
+                        setPendingScroll(RecyclerView.NO_POSITION, LinearLayoutManager.INVALID_OFFSET);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Resets the dirty state of the sticky header of {@code level}, now bound to {@code position}.
+     */
+    private void setStickyHeaderBound(int level, int position) {
+        mStickyHeadersDirty[level] = false;
+        if (mAdapter instanceof StickyHeaders.ContentHash) {
+            mStickyHeaderContentHashes[level] =
+                    ((StickyHeaders.ContentHash) mAdapter).getStickyHeaderContentHash(position);
+        }
+    }
+
+    /**
+     * Returns true if the adapter provides content hashes and the one for {@code position} changed since the sticky
+     * header of {@code level} was bound.
+     */
+    private boolean hasStickyHeaderContentChanged(int level, int position) {
+        return mAdapter instanceof StickyHeaders.ContentHash
+                && ((StickyHeaders.ContentHash) mAdapter).getStickyHeaderContentHash(position)
+                != mStickyHeaderContentHashes[level];
+    }
+
+    /**
+     * Returns true if {@code stickyHeader} requested a layout or no longer matches the available space.
+     */
+    private boolean isStickyHeaderLayoutStale(View stickyHeader) {
+        if (stickyHeader.isLayoutRequested()) {
+            return true;
+        }
+        if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+            return stickyHeader.getWidth() != mLayoutManager.getWidth() - mLayoutManager.getPaddingLeft() - mLayoutManager.getPaddingRight();
+        } else {
+            return stickyHeader.getHeight() != mLayoutManager.getHeight() - mLayoutManager.getPaddingTop() - mLayoutManager.getPaddingBottom();
+        }
+    }
+
+    /**
+     * Measures and lays out {@code stickyHeader}.
+     */
+    private void measureAndLayout(View stickyHeader) {
+        mLayoutManager.measureChildWithMargins(stickyHeader, 0, 0);
+        if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+            stickyHeader.layout(mLayoutManager.getPaddingLeft(), 0, mLayoutManager.getWidth() - mLayoutManager.getPaddingRight(), stickyHeader.getMeasuredHeight());
+        } else {
+            stickyHeader.layout(0, mLayoutManager.getPaddingTop(), stickyHeader.getMeasuredWidth(), mLayoutManager.getHeight() - mLayoutManager.getPaddingBottom());
+        }
+    }
+
+    /**
+     * Returns the size of {@code stickyHeader} along the orientation, ie. the space it takes from the sticky headers
+     * stacked after it.
+     */
+    private int getStickyHeaderSize(View stickyHeader) {
+        return mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL ? stickyHeader.getHeight() : stickyHeader.getWidth();
+    }
+
+    /**
+     * Returns the space available for children along the orientation.
+     */
+    private int getExtent() {
+        if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+            return mLayoutManager.getHeight() - mLayoutManager.getPaddingTop() - mLayoutManager.getPaddingBottom();
+        } else {
+            return mLayoutManager.getWidth() - mLayoutManager.getPaddingLeft() - mLayoutManager.getPaddingRight();
+        }
+    }
+
+    /**
+     * Scraps the sticky headers of {@code level} and deeper.
+     *
+     * @param recycler If passed, the sticky headers will be returned to the recycled view pool.
+     */
+    private void scrapStickyHeaders(@Nullable RecyclerView.Recycler recycler, int level) {
+        for (int i = mStickyHeaderCount - 1; i >= level; i--) {
+            scrapStickyHeader(recycler, i);
+        }
+        mStickyHeaderCount = Math.min(mStickyHeaderCount, level);
+    }
+
+    /**
+     * Scraps the sticky headers whose items are no longer headers, along with the deeper ones.
+     */
+    private void scrapRemovedStickyHeaders() {
+        for (int i = 0; i < mStickyHeaderCount; i++) {
+            if (!mHeaderPositions.contains(mStickyHeaderPositions[i])) {
+                scrapStickyHeaders(null, i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the sticky header of {@code level} to the sticky header cache or, if there's no room for its view type,
+     * to the {@link RecyclerView}'s {@link RecyclerView.RecycledViewPool}, assigning it to {@code null}.
+     *
+     * @param recycler If passed, the sticky header will be returned to the recycled view pool.
+     */
+    private void scrapStickyHeader(@Nullable RecyclerView.Recycler recycler, int level) {
+        View stickyHeader = mStickyHeaders[level];
+        mStickyHeaders[level] = null;
+        mStickyHeaderPositions[level] = RecyclerView.NO_POSITION;
+
+        // Revert translation values.
+        stickyHeader.setTranslationX(0);
+        stickyHeader.setTranslationY(0);
+
+        // Keep the sticky header, still ignored, to be reused by a header of the same type.
+        int viewType = mLayoutManager.getItemViewType(stickyHeader);
+        if (mStickyHeaderCacheSize > 0 && mStickyHeaderCache.get(viewType) == null) {
+            if (mStickyHeaderCache.size() >= mStickyHeaderCacheSize) {
+                releaseCachedStickyHeader(0, recycler);
+            }
+            mLayoutManager.removeView(stickyHeader);
+            mStickyHeaderCache.put(viewType, stickyHeader);
+            return;
+        }
+
+        releaseStickyHeader(stickyHeader, recycler);
+    }
+
+    private void clearStickyHeaderCache(@Nullable RecyclerView.Recycler recycler) {
+        while (mStickyHeaderCache.size() > 0) {
+            releaseCachedStickyHeader(0, recycler);
+        }
+    }
+
+    private void releaseCachedStickyHeader(int index, @Nullable RecyclerView.Recycler recycler) {
+        View stickyHeader = mStickyHeaderCache.valueAt(index);
+        mStickyHeaderCache.removeAt(index);
+        releaseStickyHeader(stickyHeader, recycler);
+    }
+
+    /**
+     * Reverts {@code stickyHeader} to a regular view and removes it, if still added.
+     *
+     * @param recycler If passed, the sticky header will be returned to the recycled view pool.
+     */
+    private void releaseStickyHeader(View stickyHeader, @Nullable RecyclerView.Recycler recycler) {
+        // Teardown holder if the adapter requires it.
+        if (mAdapter instanceof StickyHeaders.ViewSetup) {
+            ((StickyHeaders.ViewSetup) mAdapter).teardownStickyHeaderView(stickyHeader);
+        }
+
+        // Stop ignoring sticky header so that it can be recycled.
+        mLayoutManager.stopIgnoringView(stickyHeader);
+
+        // Remove and recycle sticky header.
+        if (stickyHeader.getParent() != null) {
+            mLayoutManager.removeView(stickyHeader);
+        }
+        if (recycler != null) {
+            recycler.recycleView(stickyHeader);
+        }
+    }
+
+    /**
+     * Returns the index of the first valid anchor past {@code offset}, or -1 if there is none.
+     *
+     * Children are ordered by their location, so only those past the edge are out of bounds. The search moves back
+     * from {@code hint} while the previous child is in bounds, and forward while the current one isn't, so it only
+     * visits the children that crossed the edge since the hint was taken.
+     */
+    private int findAnchorIndex(int hint, int childCount, int offset) {
+        int i = Math.max(0, Math.min(hint, childCount - 1));
+        while (i > 0 && isViewInBounds(mLayoutManager.getChildAt(i - 1), offset)) {
+            i--;
+        }
+        for (; i < childCount; i++) {
+            View child = mLayoutManager.getChildAt(i);
+            if (isViewValidAnchor(child, (RecyclerView.LayoutParams) child.getLayoutParams(), offset)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the expected index of the last anchor, assuming the children's positions are contiguous. Children are
+     * in adapter order, even when the layout is reversed.
+     */
+    private int getAnchorIndexHint() {
+        if (mAnchorPosition == RecyclerView.NO_POSITION || mLayoutManager.getChildCount() == 0) {
+            return 0;
+        }
+        return mAnchorPosition - mLayoutManager.getPosition(mLayoutManager.getChildAt(0));
+    }
+
+    /**
+     * Returns the child laid out for {@code position}, assuming the children's positions are contiguous, or
+     * {@code null} if it's not laid out.
+     */
+    private View findChildView(int position, int childCount) {
+        int index = position - mLayoutManager.getPosition(mLayoutManager.getChildAt(0));
+        if (index >= 0 && index < childCount) {
+            View child = mLayoutManager.getChildAt(index);
+            if (mLayoutManager.getPosition(child) == position) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the header in the chain of parents of {@code headerIndex}, including itself, whose parent is
+     * {@code parentIndex}, or -1 if there's none.
+     */
+    private int findChildHeaderIndex(int headerIndex, int parentIndex) {
+        while (headerIndex > parentIndex) {
+            int index = getHeaderParent(headerIndex);
+            if (index == parentIndex) {
+                return headerIndex;
+            }
+            headerIndex = index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first header from {@code fromIndex} that ends the section of header
+     * {@code headerIndex}, ie. of the same or a lower level, among those laid out up to {@code lastPosition}, or -1 if
+     * there's none.
+     */
+    private int findPusherIndex(int headerIndex, int fromIndex, int lastPosition) {
+        int level = getHeaderLevel(headerIndex);
+        int headerCount = mHeaderPositions.size();
+        for (int i = Math.max(fromIndex, headerIndex + 1);
+             i < headerCount && mHeaderPositions.get(i) <= lastPosition; i++) {
+            if (getHeaderLevel(i) <= level) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int getHeaderLevel(int headerIndex) {
+        if (mAdapter instanceof StickyHeaders.Levels) {
+            return mHeaderLevels.getLevel((StickyHeaders.Levels) mAdapter, headerIndex);
+        } else {
+            return 0;
+        }
+    }
+
+    private int getHeaderParent(int headerIndex) {
+        if (mAdapter instanceof StickyHeaders.Levels) {
+            return mHeaderLevels.getParent((StickyHeaders.Levels) mAdapter, headerIndex);
+        } else {
+            return -1;
+        }
+    }
+
+    private void invalidateAnchorHeaders() {
+        Arrays.fill(mHeadersAnchorPositions, RecyclerView.NO_POSITION);
+    }
+
+    /**
+     * Returns true when {@code view} is a valid anchor, ie. the first view to be valid and visible past
+     * {@code offset}.
+     */
+    private boolean isViewValidAnchor(View view, RecyclerView.LayoutParams params, int offset) {
+        return !params.isItemRemoved() && !params.isViewInvalid() && isViewInBounds(view, offset);
+    }
+
+    /**
+     * Returns true when {@code view} isn't past the start edge of the parent {@link RecyclerView}, moved by
+     * {@code offset}.
+     */
+    private boolean isViewInBounds(View view, int offset) {
+        if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+            if (mLayoutManager.getReverseLayout()) {
+                return view.getTop() + view.getTranslationY() <= mLayoutManager.getHeight() + mTranslationY - offset;
+            } else {
+                return view.getBottom() - view.getTranslationY() >= mTranslationY + offset;
+            }
+        } else {
+            if (mLayoutManager.getReverseLayout()) {
+                return view.getLeft() + view.getTranslationX() <= mLayoutManager.getWidth() + mTranslationX - offset;
+            } else {
+                return view.getRight() - view.getTranslationX() >= mTranslationX + offset;
+            }
+        }
+    }
+
+    /**
+     * Returns true when the {@code view} is at the edge of the parent {@link RecyclerView}, moved by {@code offset}.
+     */
+    private boolean isViewOnBoundary(View view, int offset) {
+        if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+            if (mLayoutManager.getReverseLayout()) {
+                return view.getBottom() - view.getTranslationY() > mLayoutManager.getHeight() + mTranslationY - offset;
+            } else {
+                return view.getTop() + view.getTranslationY() < mTranslationY + offset;
+            }
+        } else {
+            if (mLayoutManager.getReverseLayout()) {
+                return view.getRight() - view.getTranslationX() > mLayoutManager.getWidth() + mTranslationX - offset;
+            } else {
+                return view.getLeft() + view.getTranslationX() < mTranslationX + offset;
+            }
+        }
+    }
+
+    /**
+     * Returns the position in the Y axis to position the header appropriately, depending on orientation, direction,
+     * {@link android.R.attr#clipToPadding}, the {@code offset} taken by the sticky headers above and the position of
+     * {@code parentView}, the sticky header right above, which it can't go past.
+     */
+    private float getY(View headerView, View nextHeaderView, int offset, View parentView) {
+        if (mLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL) {
+            float y = mTranslationY;
+            if (mLayoutManager.getReverseLayout()) {
+                y += mLayoutManager.getHeight() - headerView.getHeight() - offset;
+            } else {
+                y += offset;
+            }
+            if (nextHeaderView != null) {
+                if (mLayoutManager.getReverseLayout()) {
+                    int bottomMargin = 0;
+                    if (nextHeaderView.getLayoutParams() instanceof ViewGroup.MarginLayoutParams) {
+                        bottomMargin = ((ViewGroup.MarginLayoutParams) nextHeaderView.getLayoutParams()).bottomMargin;
+                    }
+                    y = Math.max(nextHeaderView.getBottom() + bottomMargin, y);
+                } else {
+                    int topMargin = 0;
+                    if (nextHeaderView.getLayoutParams() instanceof ViewGroup.MarginLayoutParams) {
+                        topMargin = ((ViewGroup.MarginLayoutParams) nextHeaderView.getLayoutParams()).topMargin;
+                    }
+                    y = Math.min(nextHeaderView.getTop() - topMargin - headerView.getHeight(), y);
+                }
+            }
+            if (parentView != null) {
+                if (mLayoutManager.getReverseLayout()) {
+                    y = Math.max(parentView.getTranslationY() - headerView.getHeight(), y);
+                } else {
+                    y = Math.min(parentView.getTranslationY() + parentView.getHeight(), y);
+                }
+            }
+            return y;
+        } else {
+            return mTranslationY;
+        }
+    }
+
+    /**
+     * Returns the position in the X axis to position the header appropriately, depending on orientation, direction,
+     * {@link android.R.attr#clipToPadding}, the {@code offset} taken by the sticky headers above and the position of
+     * {@code parentView}, the sticky header right above, which it can't go past.
+     */
+    private float getX(View headerView, View nextHeaderView, int offset, View parentView) {
+        if (mLayoutManager.getOrientation() != LinearLayoutManager.VERTICAL) {
+            float x = mTranslationX;
+            if (mLayoutManager.getReverseLayout()) {
+                x += mLayoutManager.getWidth() - headerView.getWidth() - offset;
+            } else {
+                x += offset;
+            }
+            if (nextHeaderView != null) {
+                if (mLayoutManager.getReverseLayout()) {
+                    int rightMargin = 0;
+                    if (nextHeaderView.getLayoutParams() instanceof ViewGroup.MarginLayoutParams) {
+                        rightMargin = ((ViewGroup.MarginLayoutParams) nextHeaderView.getLayoutParams()).rightMargin;
+                    }
+                    x = Math.max(nextHeaderView.getRight() + rightMargin, x);
+                } else {
+                    int leftMargin = 0;
+                    if (nextHeaderView.getLayoutParams() instanceof ViewGroup.MarginLayoutParams) {
+                        leftMargin = ((ViewGroup.MarginLayoutParams) nextHeaderView.getLayoutParams()).leftMargin;
+                    }
+                    x = Math.min(nextHeaderView.getLeft() - leftMargin - headerView.getWidth(), x);
+                }
+            }
+            if (parentView != null) {
+                if (mLayoutManager.getReverseLayout()) {
+                    x = Math.max(parentView.getTranslationX() - headerView.getWidth(), x);
+                } else {
+                    x = Math.min(parentView.getTranslationX() + parentView.getWidth(), x);
+                }
+            }
+            return x;
+        } else {
+            return mTranslationX;
+        }
+    }
+
+    /**
+     * Finds the header index of {@code position} in {@code mHeaderPositions}.
+     */
+    private int findHeaderIndex(int position) {
+        return mHeaderPositions.findIndex(position);
+    }
+
+    /**
+     * Finds the header index of {@code position} or the one before it in {@code mHeaderPositions}.
+     */
+    private int findHeaderIndexOrBefore(int position) {
+        return mHeaderPositions.findIndexOrBefore(position);
+    }
+
+    /**
+     * Finds the header index of {@code position} or the one next to it in {@code mHeaderPositions}.
+     */
+    private int findHeaderIndexOrNext(int position) {
+        return mHeaderPositions.findIndexOrNext(position);
+    }
+
+    private void setPendingScroll(int position, int offset) {
+        mPendingScrollPosition = position;
+        mPendingScrollOffset = offset;
+    }
+
+    /**
+     * Handles header positions while adapter changes occur.
+     *
+     * This is used in detriment of {@link RecyclerView.LayoutManager}'s callbacks to control when they're received.
+     */
+    private class HeaderPositionsAdapterDataObserver extends RecyclerView.AdapterDataObserver {
+        @Override
+        public void onChanged() {
+            onPositionsChanged(0);
+
+            // There's no hint at what changed, so go through the adapter, unless it provides all headers.
+            if (mAdapter instanceof StickyHeaders.HeaderPositions) {
+                int[] headerPositions = ((StickyHeaders.HeaderPositions) mAdapter).getStickyHeaderPositions();
+                mHeaderPositions.setAll(headerPositions, headerPositions.length);
+            } else {
+                mHeaderPositions.clear();
+                int itemCount = mAdapter.getItemCount();
+                for (int i = 0; i < itemCount; i++) {
+                    if (mAdapter.isStickyHeader(i)) {
+                        mHeaderPositions.add(i);
+                    }
+                }
+            }
+
+            // Remove sticky headers immediately if the entries they represent have been removed. A layout will follow.
+            scrapRemovedStickyHeaders();
+            Arrays.fill(mStickyHeadersDirty, true);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            // Positions don't change, and the recycler rebinds the prefetched sticky header if it's changed.
+            onHeadersChanged(positionStart);
+
+            for (int i = 0; i < mStickyHeaderCount; i++) {
+                if (mStickyHeaderPositions[i] >= positionStart
+                        && mStickyHeaderPositions[i] < positionStart + itemCount) {
+                    mStickyHeadersDirty[i] = true;
+                }
+            }
+
+            // Only adapters that provide header positions by range are checked, as it'd otherwise require calling
+            // isStickyHeader() for every changed item.
+            if (mAdapter instanceof StickyHeaders.IncrementalHeaderPositions) {
+                int fromIndex = findHeaderIndexOrNext(positionStart);
+                int toIndex = findHeaderIndexOrNext(positionStart + itemCount);
+                if (fromIndex == -1) {
+                    fromIndex = mHeaderPositions.size();
+                }
+                mHeaderPositions.removeRange(fromIndex, toIndex != -1 ? toIndex : mHeaderPositions.size());
+                addHeaders(fromIndex, positionStart, itemCount);
+
+                // Remove sticky headers immediately if they're no longer headers. A layout will follow.
+                scrapRemovedStickyHeaders();
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            onPositionsChanged(positionStart);
+
+            // Shift headers below down.
+            int headerIndex = findHeaderIndexOrNext(positionStart);
+            if (headerIndex == -1) {
+                headerIndex = mHeaderPositions.size();
+            } else {
+                mHeaderPositions.shift(headerIndex, itemCount);
+            }
+
+            // Add new headers, which all go right before the shifted ones.
+            addHeaders(headerIndex, positionStart, itemCount);
+
+            for (int i = 0; i < mStickyHeaderCount; i++) {
+                if (mStickyHeaderPositions[i] >= positionStart) {
+                    mStickyHeaderPositions[i] += itemCount;
+                }
+            }
+        }
+
+        /**
+         * Inserts the headers between {@code positionStart} and {@code positionStart + itemCount} at
+         * {@code headerIndex}.
+         */
+        private void addHeaders(int headerIndex, int positionStart, int itemCount) {
+            if (mAdapter instanceof StickyHeaders.IncrementalHeaderPositions) {
+                int[] newHeaderPositions = ((StickyHeaders.IncrementalHeaderPositions) mAdapter)
+                        .getStickyHeaderPositions(positionStart, itemCount);
+                mHeaderPositions.insertAll(headerIndex, newHeaderPositions, newHeaderPositions.length);
+                return;
+            }
+
+            int[] newHeaderPositions = null;
+            int newHeaderCount = 0;
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                if (mAdapter.isStickyHeader(i)) {
+                    if (newHeaderPositions == null) {
+                        newHeaderPositions = new int[positionStart + itemCount - i];
+                    }
+                    newHeaderPositions[newHeaderCount++] = i;
+                }
+            }
+            if (newHeaderCount > 0) {
+                mHeaderPositions.insertAll(headerIndex, newHeaderPositions, newHeaderCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            onPositionsChanged(positionStart);
+
+            int headerCount = mHeaderPositions.size();
+            if (headerCount > 0) {
+                // Remove headers.
+                int fromIndex = findHeaderIndexOrNext(positionStart);
+                if (fromIndex != -1) {
+                    int toIndex = findHeaderIndexOrNext(positionStart + itemCount);
+                    mHeaderPositions.removeRange(fromIndex, toIndex != -1 ? toIndex : headerCount);
+                }
+
+                // Remove sticky headers immediately if the entries they represent have been removed. A layout will
+                // follow.
+                scrapRemovedStickyHeaders();
+
+                // Shift headers below up.
+                int shiftIndex = findHeaderIndexOrNext(positionStart + itemCount);
+                if (shiftIndex != -1) {
+                    mHeaderPositions.shift(shiftIndex, -itemCount);
+                }
+            }
+
+            for (int i = 0; i < mStickyHeaderCount; i++) {
+                if (mStickyHeaderPositions[i] >= positionStart + itemCount) {
+                    mStickyHeaderPositions[i] -= itemCount;
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            onPositionsChanged(Math.min(fromPosition, toPosition));
+
+            // RecyclerView only supports moving one item at a time.
+            for (int i = 0; i < itemCount; i++) {
+                int from = fromPosition > toPosition ? fromPosition + i : fromPosition;
+                int to = fromPosition > toPosition ? toPosition + i : toPosition;
+                onItemMoved(from, to);
+            }
+        }
+
+        private void onItemMoved(int fromPosition, int toPosition) {
+            for (int i = 0; i < mStickyHeaderCount; i++) {
+                int position = mStickyHeaderPositions[i];
+                if (position == fromPosition) {
+                    mStickyHeaderPositions[i] = toPosition;
+                } else if (fromPosition < toPosition && position > fromPosition && position <= toPosition) {
+                    mStickyHeaderPositions[i]--;
+                } else if (fromPosition > toPosition && position >= toPosition && position < fromPosition) {
+                    mStickyHeaderPositions[i]++;
+                }
+            }
+
+            // Take out the moved header, if any.
+            int movedIndex = findHeaderIndex(fromPosition);
+            if (movedIndex != -1) {
+                mHeaderPositions.removeAt(movedIndex);
+            }
+
+            // Shift headers in-between by one (reverse if downwards).
+            int startIndex, endIndex, delta;
+            if (fromPosition < toPosition) {
+                startIndex = findHeaderIndexOrNext(fromPosition + 1);
+                endIndex = findHeaderIndexOrNext(toPosition + 1);
+                delta = -1;
+            } else {
+                startIndex = findHeaderIndexOrNext(toPosition);
+                endIndex = findHeaderIndexOrNext(fromPosition);
+                delta = 1;
+            }
+            if (startIndex != -1) {
+                if (endIndex == -1) {
+                    endIndex = mHeaderPositions.size();
+                }
+                for (int i = startIndex; i < endIndex; i++) {
+                    mHeaderPositions.set(i, mHeaderPositions.get(i) + delta);
+                }
+            }
+
+            // Put the moved header back in place.
+            if (movedIndex != -1) {
+                int headerIndex = findHeaderIndexOrNext(toPosition);
+                mHeaderPositions.insert(headerIndex != -1 ? headerIndex : mHeaderPositions.size(), toPosition);
+            }
+        }
+
+        /**
+         * Invalidates state derived from the positions from {@code positionStart} onwards, before they shift.
+         */
+        private void onPositionsChanged(int positionStart) {
+            if (mPrefetchedStickyHeaderPosition >= positionStart) {
+                mPrefetchedStickyHeaderPosition = RecyclerView.NO_POSITION;
+            }
+            onHeadersChanged(positionStart);
+        }
+
+        /**
+         * Invalidates state derived from the headers from {@code positionStart} onwards, before they change.
+         */
+        private void onHeadersChanged(int positionStart) {
+            invalidateAnchorHeaders();
+            int headerIndex = findHeaderIndexOrNext(positionStart);
+            mHeaderLevels.invalidateFrom(headerIndex != -1 ? headerIndex : mHeaderPositions.size());
+        }
+    }
+
+    interface ScrollToPositionWithOffset {
+        void scrollToPositionWithOffset(int position, int offset);
+    }
+}
@@ -0,0 +1,64 @@
+package io.doist.recyclerviewext.sticky_headers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HeaderLevelsTest {
+    private HeaderPositionIndex mHeaderPositions;
+    private HeaderLevels mHeaderLevels;
+    // Level of the header at each position.
+    private int[] mLevelsByPosition;
+    private int mLevelCallCount;
+
+    private final StickyHeaders.Levels mLevels = new StickyHeaders.Levels() {
+        @Override
+        public int getStickyHeaderLevel(int position) {
+            mLevelCallCount++;
+            return mLevelsByPosition[position];
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mHeaderPositions = new HeaderPositionIndex();
+        mHeaderPositions.setAll(new int[]{0, 1, 2, 3, 4, 5}, 6);
+        mHeaderLevels = new HeaderLevels(mHeaderPositions);
+        mLevelsByPosition = new int[]{0, 1, 2, 1, 2, 0};
+    }
+
+    @Test
+    public void getParent_findsTheClosestLowerLevel() {
+        assertEquals(-1, mHeaderLevels.getParent(mLevels, 0));
+        assertEquals(0, mHeaderLevels.getParent(mLevels, 1));
+        assertEquals(1, mHeaderLevels.getParent(mLevels, 2));
+        assertEquals(0, mHeaderLevels.getParent(mLevels, 3));
+        assertEquals(3, mHeaderLevels.getParent(mLevels, 4));
+        assertEquals(-1, mHeaderLevels.getParent(mLevels, 5));
+        assertEquals(2, mHeaderLevels.getLevel(mLevels, 4));
+    }
+
+    @Test
+    public void getLevel_computesEachHeaderOnce() {
+        mHeaderLevels.getLevel(mLevels, 3);
+        mHeaderLevels.getLevel(mLevels, 1);
+        mHeaderLevels.getParent(mLevels, 5);
+
+        assertEquals(6, mLevelCallCount);
+    }
+
+    @Test
+    public void invalidateFrom_recomputesFollowingHeaders() {
+        mHeaderLevels.getLevel(mLevels, 5);
+        mLevelCallCount = 0;
+
+        mLevelsByPosition[3] = 2;
+        mHeaderLevels.invalidateFrom(3);
+
+        assertEquals(2, mHeaderLevels.getLevel(mLevels, 3));
+        assertEquals(1, mHeaderLevels.getParent(mLevels, 3));
+        assertEquals(1, mHeaderLevels.getParent(mLevels, 4));
+        assertEquals(2, mLevelCallCount);
+    }
+}
@@ -0,0 +1,114 @@
+package io.doist.recyclerviewext.sticky_headers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HeaderPositionIndexTest {
+    @Test
+    public void find_searchesPositions() {
+        HeaderPositionIndex index = new HeaderPositionIndex();
+        index.setAll(new int[]{2, 5, 9, 100}, 3);
+
+        assertEquals(3, index.size());
+        assertTrue(index.contains(5));
+        assertFalse(index.contains(4));
+        assertEquals(1, index.findIndex(5));
+        assertEquals(-1, index.findIndex(4));
+        assertEquals(0, index.findIndexOrBefore(4));
+        assertEquals(-1, index.findIndexOrBefore(1));
+        assertEquals(1, index.findIndexOrNext(4));
+        assertEquals(-1, index.findIndexOrNext(10));
+    }
+
+    @Test
+    public void shift_appliesToFollowingPositions() {
+        HeaderPositionIndex index = new HeaderPositionIndex();
+        index.setAll(new int[]{0, 10, 20, 30}, 4);
+
+        index.shift(1, 5);
+        index.shift(2, -2);
+        index.shift(0, 1);
+
+        assertPositions(index, 1, 16, 24, 34);
+    }
+
+    @Test
+    public void insertAndRemove_keepPendingShifts() {
+        HeaderPositionIndex index = new HeaderPositionIndex();
+        index.setAll(new int[]{0, 10, 20}, 3);
+        index.shift(1, 3);
+
+        index.insert(1, 5);
+        index.insertAll(4, new int[]{40, 50}, 2);
+        assertPositions(index, 0, 5, 13, 23, 40, 50);
+
+        index.removeRange(1, 3);
+        assertEquals(0, index.removeAt(0));
+        assertPositions(index, 23, 40, 50);
+
+        index.set(0, 22);
+        index.add(60);
+        assertPositions(index, 22, 40, 50, 60);
+    }
+
+    @Test
+    public void randomOperations_matchList() {
+        Random random = new Random(0);
+        HeaderPositionIndex index = new HeaderPositionIndex();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || expected.isEmpty()) {
+                // Inserts a position that keeps the list sorted.
+                int at = random.nextInt(expected.size() + 1);
+                int low = at > 0 ? expected.get(at - 1) + 1 : 0;
+                int high = at < expected.size() ? expected.get(at) : low + 10;
+                if (low < high) {
+                    int position = low + random.nextInt(high - low);
+                    expected.add(at, position);
+                    index.insert(at, position);
+                }
+            } else if (operation == 1) {
+                int from = random.nextInt(expected.size());
+                int to = from + random.nextInt(Math.min(3, expected.size() - from) + 1);
+                expected.subList(from, to).clear();
+                index.removeRange(from, to);
+            } else {
+                // Shifts by an amount that keeps the list sorted.
+                int from = random.nextInt(expected.size());
+                int gap = from > 0 ? expected.get(from) - expected.get(from - 1) - 1 : expected.get(from);
+                int delta = random.nextInt(10) - Math.min(gap, 5);
+                for (int j = from; j < expected.size(); j++) {
+                    expected.set(j, expected.get(j) + delta);
+                }
+                index.shift(from, delta);
+            }
+
+            assertEquals(expected.size(), index.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals((int) expected.get(j), index.get(j));
+            }
+            int position = random.nextInt(expected.isEmpty() ? 1 : expected.get(expected.size() - 1) + 2);
+            int search = Collections.binarySearch(expected, position);
+            assertEquals(search >= 0 ? search : -1, index.findIndex(position));
+            assertEquals(search >= 0 ? search : -search - 2, index.findIndexOrBefore(position));
+            int next = search >= 0 ? search : -search - 1;
+            assertEquals(next < expected.size() ? next : -1, index.findIndexOrNext(position));
+        }
+    }
+
+    private static void assertPositions(HeaderPositionIndex index, int... positions) {
+        assertEquals(positions.length, index.size());
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i], index.get(i));
+        }
+    }
+}